@@ -0,0 +1,37 @@
+package neilyich.bf.minimization.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// запуск бенчмарков с параметрами командной строки JMH; если они не заданы явно, включается профилировщик
+// аллокаций (-prof gc), а результаты сохраняются в формате JSON в файл jmh-result.json
+public class BenchmarkRunner {
+    public static void main(String[] args) throws Exception {
+        var cmd = new CommandLineOptions(args);
+        if(cmd.shouldHelp()) {
+            cmd.showHelp();
+            return;
+        }
+        var builder = new OptionsBuilder().parent(cmd);
+        boolean gc = cmd.getProfilers().stream()
+                .anyMatch(p -> p.getKlass().equals("gc") || p.getKlass().equals(GCProfiler.class.getName()));
+        if(!gc) {
+            builder.addProfiler(GCProfiler.class);
+        }
+        if(!cmd.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if(!cmd.getResult().hasValue()) {
+            builder.result("jmh-result.json");
+        }
+        var runner = new Runner(builder.build());
+        if(cmd.shouldList()) {
+            runner.list();
+            return;
+        }
+        runner.run();
+    }
+}
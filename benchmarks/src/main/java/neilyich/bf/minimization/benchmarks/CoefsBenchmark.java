@@ -0,0 +1,21 @@
+package neilyich.bf.minimization.benchmarks;
+
+import neilyich.bf.minimization.Minimizer;
+import neilyich.bf.minimization.undetermined.coefs.CoefsMinimizer;
+import org.openjdk.jmh.annotations.Param;
+
+// метод неопределенных коэффициентов (другие размеры задаются параметром -p n=...)
+public class CoefsBenchmark extends MinimizerBenchmark {
+    @Param({"4", "5", "6"})
+    private int n;
+
+    @Override
+    protected int variablesCount() {
+        return n;
+    }
+
+    @Override
+    protected Minimizer minimizer() {
+        return new CoefsMinimizer();
+    }
+}
@@ -0,0 +1,21 @@
+package neilyich.bf.minimization.benchmarks;
+
+import neilyich.bf.minimization.Minimizer;
+import neilyich.bf.minimization.espresso.EspressoMinimizer;
+import org.openjdk.jmh.annotations.Param;
+
+// эвристическая минимизация Espresso (другие размеры задаются параметром -p n=...)
+public class EspressoBenchmark extends MinimizerBenchmark {
+    @Param({"4", "8", "12", "16"})
+    private int n;
+
+    @Override
+    protected int variablesCount() {
+        return n;
+    }
+
+    @Override
+    protected Minimizer minimizer() {
+        return new EspressoMinimizer();
+    }
+}
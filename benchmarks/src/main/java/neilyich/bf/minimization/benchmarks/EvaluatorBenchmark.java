@@ -0,0 +1,65 @@
+package neilyich.bf.minimization.benchmarks;
+
+import neilyich.bf.minimization.DnfEvaluator;
+import neilyich.bf.minimization.Implicant;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// вычисление ДНФ на SIZE случайных наборах: по одному набору, по 64 набора в битовых срезах
+// и параллельно по блокам из 64 наборов (время выводится на весь массив наборов)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluatorBenchmark {
+    private static final int SIZE = 1 << 16;
+
+    @Param({"8", "16", "24"})
+    private int n;
+
+    // число слагаемых ДНФ
+    @Param({"16", "256"})
+    private int terms;
+
+    private DnfEvaluator evaluator;
+    private long[] inputs;
+
+    @Setup
+    public void setup() {
+        var random = Inputs.random("evaluator", n);
+        List<Implicant> dnf = new ArrayList<>(terms);
+        for(int i = 0; i < terms; i++) {
+            dnf.add(Inputs.implicant(random, n, 0.5));
+        }
+        evaluator = new DnfEvaluator(n, dnf);
+        inputs = new long[SIZE];
+        for(int i = 0; i < SIZE; i++) {
+            inputs[i] = random.nextLong() & ((1L << n) - 1);
+        }
+    }
+
+    @Benchmark
+    public long single() {
+        long count = 0;
+        for(long input: inputs) {
+            if(evaluator.evaluate(input)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public long[] sliced() {
+        return evaluator.evaluate(inputs);
+    }
+
+    @Benchmark
+    public long[] parallel() {
+        return evaluator.evaluateParallel(inputs);
+    }
+}
@@ -0,0 +1,147 @@
+package neilyich.bf.minimization.benchmarks;
+
+import neilyich.bf.minimization.BooleanFunction;
+import neilyich.bf.minimization.Implicant;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// микро-бенчмарки операций над импликантами: каждый вызов обрабатывает SIZE заранее подготовленных пар,
+// время и аллокации выводятся в пересчете на одну операцию
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImplicantBenchmark {
+    private static final int SIZE = 1024;
+    // число слагаемых ДНФ для BooleanFunction.of
+    private static final int DNF_SIZE = 32;
+
+    @Param({"4", "8", "12", "16"})
+    private int n;
+
+    // половина пар склеивается (отличается ровно в одной позиции), половина - случайные
+    private Implicant[] intersectLeft;
+    private Implicant[] intersectRight;
+    // в половине пар левая импликанта покрывает правую
+    private Implicant[] coversLeft;
+    private Implicant[] coversRight;
+    // пары без противоречащих литералов (их произведение не равно 0)
+    private Implicant[] multLeft;
+    private Implicant[] multRight;
+    // импликанты с n / 2 литералами (2^(n - n / 2) единичных наборов)
+    private Implicant[] halfCubes;
+    private List<Implicant> dnf;
+
+    @Setup
+    public void setup() {
+        var random = Inputs.random("implicant", n);
+        intersectLeft = new Implicant[SIZE];
+        intersectRight = new Implicant[SIZE];
+        coversLeft = new Implicant[SIZE];
+        coversRight = new Implicant[SIZE];
+        multLeft = new Implicant[SIZE];
+        multRight = new Implicant[SIZE];
+        halfCubes = new Implicant[SIZE];
+        for(int i = 0; i < SIZE; i++) {
+            var a = Inputs.implicant(random, n, 0.75);
+            intersectLeft[i] = a;
+            if(i % 2 == 0) {
+                var b = new Implicant(a);
+                int pos = random.nextInt(n);
+                var v = a.get(pos);
+                b.set(pos, v == null ? random.nextBoolean() : !v);
+                intersectRight[i] = b;
+            }
+            else {
+                intersectRight[i] = Inputs.implicant(random, n, 0.75);
+            }
+
+            var wide = Inputs.implicant(random, n, 0.3);
+            coversLeft[i] = wide;
+            coversRight[i] = i % 2 == 0 ? restrict(wide, random) : Inputs.implicant(random, n, 0.6);
+
+            var l = Inputs.implicant(random, n, 0.4);
+            var r = Inputs.implicant(random, n, 0.4);
+            for(int pos = 0; pos < n; pos++) {
+                if(l.get(pos) != null && r.get(pos) != null) {
+                    r.set(pos, l.get(pos));
+                }
+            }
+            multLeft[i] = l;
+            multRight[i] = r;
+
+            halfCubes[i] = halfCube(random);
+        }
+        dnf = new ArrayList<>(DNF_SIZE);
+        for(int i = 0; i < DNF_SIZE; i++) {
+            dnf.add(Inputs.implicant(random, n, 0.5));
+        }
+    }
+
+    // импликанта, покрываемая заданной (к ней добавлены случайные литералы)
+    private Implicant restrict(Implicant impl, Random random) {
+        var res = new Implicant(impl);
+        for(int pos = 0; pos < n; pos++) {
+            if(res.get(pos) == null && random.nextInt(3) == 0) {
+                res.set(pos, random.nextBoolean());
+            }
+        }
+        return res;
+    }
+
+    private Implicant halfCube(Random random) {
+        var res = new Implicant(n);
+        List<Integer> positions = new ArrayList<>();
+        for(int pos = 0; pos < n; pos++) {
+            positions.add(pos);
+        }
+        Collections.shuffle(positions, random);
+        for(int k = 0; k < n / 2; k++) {
+            res.set(positions.get(k), random.nextBoolean());
+        }
+        return res;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void tryIntersect(Blackhole bh) {
+        for(int i = 0; i < SIZE; i++) {
+            bh.consume(Implicant.tryIntersect(intersectLeft[i], intersectRight[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void covers(Blackhole bh) {
+        for(int i = 0; i < SIZE; i++) {
+            bh.consume(coversLeft[i].covers(coversRight[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void mult(Blackhole bh) {
+        for(int i = 0; i < SIZE; i++) {
+            bh.consume(Implicant.mult(multLeft[i], multRight[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void generateOnes(Blackhole bh) {
+        for(int i = 0; i < SIZE; i++) {
+            bh.consume(halfCubes[i].generateOnes());
+        }
+    }
+
+    // построение вектора значений по ДНФ из DNF_SIZE слагаемых
+    @Benchmark
+    public BooleanFunction of() {
+        return BooleanFunction.of(n, dnf);
+    }
+}
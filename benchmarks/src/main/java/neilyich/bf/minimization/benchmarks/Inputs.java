@@ -0,0 +1,70 @@
+package neilyich.bf.minimization.benchmarks;
+
+import neilyich.bf.minimization.BooleanFunction;
+import neilyich.bf.minimization.Implicant;
+import neilyich.bf.minimization.TruthTables;
+
+import java.util.Random;
+
+// входные данные бенчмарков: генератор инициализируется фиксированным seed, поэтому все запуски
+// измеряют одни и те же функции и импликанты
+final class Inputs {
+    static final long SEED = 0x5EEDL;
+
+    private Inputs() {
+    }
+
+    static Random random(String kind, int variablesCount) {
+        return new Random(SEED * 31 + kind.hashCode() * 17L + variablesCount);
+    }
+
+    // функция заданного вида:
+    // random - каждый набор равен 1 с вероятностью 1/2, dense - 7/8, sparse - 1/16,
+    // symmetric - значение зависит только от числа единиц в наборе
+    static BooleanFunction function(String kind, int variablesCount) {
+        var random = random(kind, variablesCount);
+        var table = new long[TruthTables.wordsCount(variablesCount)];
+        boolean[] byWeight = new boolean[variablesCount + 1];
+        for(int w = 0; w <= variablesCount; w++) {
+            byWeight[w] = random.nextBoolean();
+        }
+        for(int i = 0; i < 1 << variablesCount; i++) {
+            boolean value;
+            switch(kind) {
+                case "random":
+                    value = random.nextBoolean();
+                    break;
+                case "dense":
+                    value = random.nextInt(8) != 0;
+                    break;
+                case "sparse":
+                    value = random.nextInt(16) == 0;
+                    break;
+                case "symmetric":
+                    value = byWeight[Integer.bitCount(i)];
+                    break;
+                default:
+                    throw new RuntimeException("Unknown function kind: " + kind);
+            }
+            if(value) {
+                table[i >>> 6] |= 1L << i;
+            }
+        }
+        return new BooleanFunction(variablesCount, table);
+    }
+
+    // импликанта, в которую каждая переменная входит с вероятностью literalProbability
+    static Implicant implicant(Random random, int variablesCount, double literalProbability) {
+        long care = 0;
+        long values = 0;
+        for(int i = 0; i < variablesCount; i++) {
+            if(random.nextDouble() < literalProbability) {
+                care |= 1L << i;
+                if(random.nextBoolean()) {
+                    values |= 1L << i;
+                }
+            }
+        }
+        return new Implicant(variablesCount, care, values);
+    }
+}
@@ -0,0 +1,21 @@
+package neilyich.bf.minimization.benchmarks;
+
+import neilyich.bf.minimization.Minimizer;
+import neilyich.bf.minimization.bdd.IsopMinimizer;
+import org.openjdk.jmh.annotations.Param;
+
+// построение неизбыточной ДНФ по диаграмме двоичных решений (другие размеры задаются параметром -p n=...)
+public class IsopBenchmark extends MinimizerBenchmark {
+    @Param({"4", "8", "12", "16"})
+    private int n;
+
+    @Override
+    protected int variablesCount() {
+        return n;
+    }
+
+    @Override
+    protected Minimizer minimizer() {
+        return new IsopMinimizer();
+    }
+}
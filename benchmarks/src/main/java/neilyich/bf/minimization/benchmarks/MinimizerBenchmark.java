@@ -0,0 +1,36 @@
+package neilyich.bf.minimization.benchmarks;
+
+import neilyich.bf.minimization.BooleanFunction;
+import neilyich.bf.minimization.Minimizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// общая часть бенчмарков минимизации: функция заданного вида строится один раз на весь запуск,
+// каждый вызов минимизирует ее заново новым экземпляром алгоритма (без вывода хода работы)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public abstract class MinimizerBenchmark {
+    @Param({"random", "dense", "sparse", "symmetric"})
+    private String kind;
+
+    private BooleanFunction f;
+
+    protected abstract int variablesCount();
+
+    protected abstract Minimizer minimizer();
+
+    @Setup
+    public void setup() {
+        f = Inputs.function(kind, variablesCount());
+    }
+
+    @Benchmark
+    public BooleanFunction minimize() {
+        return minimizer().minimize(f);
+    }
+}
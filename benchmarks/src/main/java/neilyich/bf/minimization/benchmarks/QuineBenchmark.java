@@ -0,0 +1,21 @@
+package neilyich.bf.minimization.benchmarks;
+
+import neilyich.bf.minimization.Minimizer;
+import neilyich.bf.minimization.quine.mccluskey.QuineMinimizer;
+import org.openjdk.jmh.annotations.Param;
+
+// алгоритм Квайна МакКласски (другие размеры задаются параметром -p n=...)
+public class QuineBenchmark extends MinimizerBenchmark {
+    @Param({"4", "6", "8"})
+    private int n;
+
+    @Override
+    protected int variablesCount() {
+        return n;
+    }
+
+    @Override
+    protected Minimizer minimizer() {
+        return new QuineMinimizer();
+    }
+}
@@ -1,24 +1,54 @@
 package neilyich.bf.minimization;
 
+import neilyich.bf.minimization.bdd.IsopMinimizer;
+import neilyich.bf.minimization.cache.CachingMinimizer;
+import neilyich.bf.minimization.cache.NpnCache;
+import neilyich.bf.minimization.espresso.EspressoMinimizer;
+import neilyich.bf.minimization.io.FunctionReader;
+import neilyich.bf.minimization.io.FunctionWriter;
+import neilyich.bf.minimization.io.TruthTableReader;
+import neilyich.bf.minimization.jfr.JfrListener;
+import neilyich.bf.minimization.portfolio.PortfolioMinimizer;
 import neilyich.bf.minimization.undetermined.coefs.CoefsMinimizer;
 import neilyich.bf.minimization.quine.mccluskey.QuineMinimizer;
+import neilyich.bf.minimization.store.ResultStore;
+import neilyich.bf.minimization.store.StoredMinimizer;
 
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.PrintStream;
+import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class Application {
+    // вектор функции большего числа переменных не выводится целиком
+    private static final int MAX_PRINTED_VARIABLES_COUNT = 16;
+
     public static void main(String[] args) throws IOException {
-        String vector = getBFVector(args);
-        test(vector);
+        var parameters = getParameters(args);
+        if(parameters.containsKey("batch")) {
+            batch(parameters);
+            return;
+        }
+        var f = getBF(parameters);
+        if(parameters.containsKey("minimizer")) {
+            System.out.println("\n\nminimizing f = " + describe(f) + ":");
+            try(var store = openStore(parameters)) {
+                var minimizer = getMinimizer(parameters.get("minimizer"));
+                minimize(f, store == null ? minimizer : new StoredMinimizer(minimizer, store),
+                        getLimits(parameters).get());
+            }
+        }
+        else {
+            test(f);
+        }
     }
 
-    // получение вектора БФ в зависимости от аргументов
-    private static String getBFVector(String[] args) throws IOException {
+    // разбор аргументов вида <параметр>=<значение>
+    private static Map<String, String> getParameters(String[] args) {
         Map<String, String> parameters = new HashMap<>();
         for(var arg : args) {
             var pair = arg.split("=");
@@ -29,52 +59,155 @@ public class Application {
                 System.out.println("Unknown parameter: " + arg);
             }
         }
+        return parameters;
+    }
+
+    // пакетная минимизация векторов из файла (batch=-  - из консоли), по одному вектору в строке
+    // (format=binary - функции и минимизированные ДНФ в двоичном формате FunctionReader/FunctionWriter)
+    private static void batch(Map<String, String> parameters) throws IOException {
+        String name = parameters.getOrDefault("minimizer", "quine");
+        // проверка имени алгоритма до начала чтения векторов
+        getMinimizer(name);
+        int threadsCount = parameters.containsKey("threads") ?
+                Integer.parseInt(parameters.get("threads")) : Runtime.getRuntime().availableProcessors();
+        String input = parameters.get("batch");
+        var in = input.equals("-") ? System.in : Files.newInputStream(Path.of(input));
+        var out = parameters.containsKey("output") ? Files.newOutputStream(Path.of(parameters.get("output"))) : System.out;
+        boolean binary = parameters.getOrDefault("format", "ascii").equals("binary");
+        var store = openStore(parameters);
+        Supplier<Minimizer> stored = store == null ?
+                () -> getMinimizer(name) : () -> new StoredMinimizer(getMinimizer(name), store);
+        // общий для всех потоков кэш результатов NPN-эквивалентных функций
+        var cache = parameters.containsKey("cache") ? new NpnCache(Integer.parseInt(parameters.get("cache"))) : null;
+        Supplier<Minimizer> factory = cache == null ?
+                stored : () -> new CachingMinimizer(stored.get(), cache);
+        var runner = new BatchRunner(factory, getLimits(parameters), threadsCount);
+        long start = System.nanoTime();
+        long count;
+        if(binary) {
+            try(var reader = new FunctionReader(in); var writer = new FunctionWriter(out); store) {
+                count = runner.run(reader, writer);
+            }
+        }
+        else {
+            try(var reader = new BufferedReader(new InputStreamReader(in));
+                var writer = new BufferedWriter(new OutputStreamWriter(out)); store) {
+                count = runner.run(reader, writer);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Minimized %d functions in %.3f s (%.1f functions/s, %d threads)%n",
+                count, seconds, count / seconds, threadsCount);
+        if(runner.getStoppedCount() > 0) {
+            System.err.printf("Stopped by limits (results may be not minimal): %d functions%n", runner.getStoppedCount());
+        }
+        if(cache != null) {
+            System.err.printf("Cache: %d hits, %d misses, %d entries%n", cache.getHits(), cache.getMisses(), cache.size());
+        }
+    }
+
+    // ограничения минимизации одной функции из параметров timeout (мс) и memory (МБ)
+    // (срок отсчитывается от момента создания ограничений)
+    private static Supplier<MinimizationLimits> getLimits(Map<String, String> parameters) {
+        var limits = parameters.containsKey("memory") ?
+                MinimizationLimits.NONE.withMemoryBudget(Long.parseLong(parameters.get("memory")) << 20) :
+                MinimizationLimits.NONE;
+        if(!parameters.containsKey("timeout")) {
+            return () -> limits;
+        }
+        var timeout = Duration.ofMillis(Long.parseLong(parameters.get("timeout")));
+        return () -> limits.withTimeout(timeout);
+    }
 
-        String vector;
+    // открытие хранилища результатов на диске (null - если параметр store не задан)
+    private static ResultStore openStore(Map<String, String> parameters) throws IOException {
+        if(!parameters.containsKey("store")) {
+            return null;
+        }
+        return new ResultStore(Path.of(parameters.get("store")));
+    }
+
+    // получение алгоритма минимизации по его имени
+    private static Minimizer getMinimizer(String name) {
+        switch(name) {
+            case "quine":
+                return new QuineMinimizer();
+            case "quine-zdd":
+                return new QuineMinimizer(ForkJoinPool.commonPool(), true);
+            case "coefs":
+                return new CoefsMinimizer();
+            case "espresso":
+                return new EspressoMinimizer();
+            case "isop":
+                return new IsopMinimizer();
+            case "portfolio":
+                return new PortfolioMinimizer();
+            default:
+                throw new RuntimeException("Unknown minimizer: " + name);
+        }
+    }
+
+    // получение БФ в зависимости от аргументов (файл input читается в формате format, по умолчанию ascii)
+    private static BooleanFunction getBF(Map<String, String> parameters) throws IOException {
+        BooleanFunction f;
         if(parameters.containsKey("vector")) {
-            vector = parameters.get("vector");
+            f = new BooleanFunction(parameters.get("vector"));
         }
         else if(parameters.containsKey("input")) {
-            vector = Files.readString(Path.of(parameters.get("input")));
+            var format = TruthTableReader.format(parameters.getOrDefault("format", "ascii"));
+            f = TruthTableReader.read(Path.of(parameters.get("input")), format);
         }
         else {
             System.out.println("Enter vector of BF:");
-            vector = new Scanner(System.in).nextLine();
+            f = new BooleanFunction(new Scanner(System.in).nextLine());
         }
 
         if(parameters.containsKey("output")) {
             System.setOut(new PrintStream(new FileOutputStream(parameters.get("output"))));
         }
-        return vector;
+        return f;
+    }
+
+    // вектор функции для вывода (для функций большого числа переменных - только число переменных и единиц)
+    private static String describe(BooleanFunction f) {
+        if(f.getVariablesCount() <= MAX_PRINTED_VARIABLES_COUNT) {
+            return f.getVector();
+        }
+        return "function of " + f.getVariablesCount() + " variables with " + f.onesCount() + " ones";
     }
 
     // проведение минимизации функции заданным алгоритмом
-    private static BooleanFunction minimize(BooleanFunction f, Minimizer minimizer) {
-        var min = minimizer.minimize(f);
+    private static BooleanFunction minimize(BooleanFunction f, Minimizer minimizer, MinimizationLimits limits) {
+        var stats = new MinimizationStats();
+        var min = minimizer.minimize(f, new CompositeListener(new PrintingListener(System.out), stats,
+                JfrListener.of(minimizer.getClass().getSimpleName())), limits);
         System.out.println("\n\nMinimized function:");
         System.out.println(min);
+        System.out.println("\nStatistics:");
+        System.out.println(stats);
         return min;
     }
 
     // минимизация функции двумя алгоритмами и сравнение результатов
-    private static boolean test(String vector) {
-        System.out.println("\n\nminimizing f = " + vector + ":");
-        System.out.println("Sdnf: " + new BooleanFunction(vector).toString());
+    private static boolean test(BooleanFunction f) {
+        System.out.println("\n\nminimizing f = " + describe(f) + ":");
+        System.out.println("Sdnf: " + copy(f).toString());
         var quineMinimizer = new QuineMinimizer();
         var coefsMinimizer = new CoefsMinimizer();
         System.out.println("\nUNDETERMINED COEFS ALGORITHM:\n");
-        var f2 = minimize(new BooleanFunction(vector), coefsMinimizer);
+        var f2 = minimize(copy(f), coefsMinimizer, MinimizationLimits.NONE);
         System.out.println("\n\nQUINE MCCLUSSKEY ALGORITHM:\n");
-        var f1 = minimize(new BooleanFunction(vector), quineMinimizer);
+        var f1 = minimize(copy(f), quineMinimizer, MinimizationLimits.NONE);
         System.out.println("\n\n\n----------------\n\n");
-        System.out.println("Quine McCluskey algorithm    : " + f1.toString() + " ; weight = " + f1.weight() + "; vector = " + f1.getVector());
-        System.out.println("Undetermined coefs algorithm : " + f2.toString() + " ; weight = " + f2.weight() + "; vector = " + f2.getVector());
+        System.out.println("Quine McCluskey algorithm    : " + f1.toString() + " ; weight = " + f1.weight() + "; vector = " + describe(f1));
+        System.out.println("Undetermined coefs algorithm : " + f2.toString() + " ; weight = " + f2.weight() + "; vector = " + describe(f2));
         System.out.println();
         var dif1 = f1.diff(f2);
         var dif2 = f2.diff(f1);
         System.out.println("Implicants only in Quine McCluskey algorithm result    : " + dif1.stream().sorted(Comparator.naturalOrder()).collect(Collectors.toList()).toString());
         System.out.println("Implicants only in Undetermined coefs algorithm result : " + dif2.stream().sorted(Comparator.naturalOrder()).collect(Collectors.toList()).toString());
-        if(f1.isSame(f2)) {
+        // результаты сравниваются по ДНФ, без построения векторов значений
+        if(CoverChecks.isEquivalent(f1, f2)) {
             System.out.println("Same functions");
             int cmp = f1.compareSame(f2);
             if(cmp == 0) {
@@ -96,4 +229,9 @@ public class Application {
         }
         return false;
     }
+
+    // копия функции без построенной СДНФ (каждый алгоритм получает свою)
+    private static BooleanFunction copy(BooleanFunction f) {
+        return new BooleanFunction(f.getVariablesCount(), f.toLongArray());
+    }
 }
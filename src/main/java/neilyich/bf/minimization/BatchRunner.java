@@ -0,0 +1,159 @@
+package neilyich.bf.minimization;
+
+import neilyich.bf.minimization.io.FunctionReader;
+import neilyich.bf.minimization.io.FunctionWriter;
+
+import java.io.*;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// пакетная минимизация: векторы БФ читаются построчно, минимизируются в пуле потоков,
+// а результаты записываются в порядке входных строк (одна строка результата на каждую непустую строку входа)
+// одновременно обрабатывается не больше window функций: если самая старая еще не готова,
+// чтение следующих строк ждет ее завершения
+// если минимизация функции остановлена ограничением, после ее ДНФ выводится " # not optimal: <ограничение> in <этап>"
+// в двоичном режиме (FunctionReader/FunctionWriter) для каждой записи входа записывается ДНФ, признак
+// остановки ограничением не записывается (учитывается только в getStoppedCount)
+public class BatchRunner {
+    private final Supplier<Minimizer> minimizerFactory;
+    private final Supplier<MinimizationLimits> limitsFactory;
+    private final int threadsCount;
+    private final int window;
+    // число функций, минимизация которых была остановлена ограничением
+    private final AtomicLong stoppedCount = new AtomicLong();
+
+    // для каждой функции создается свой экземпляр алгоритма (минимизаторы хранят состояние между вызовами)
+    public BatchRunner(Supplier<Minimizer> minimizerFactory, int threadsCount) {
+        this(minimizerFactory, () -> MinimizationLimits.NONE, threadsCount);
+    }
+
+    // ограничения также создаются для каждой функции в момент начала ее минимизации (например, чтобы срок
+    // отсчитывался от начала минимизации функции, а не от запуска пакета)
+    public BatchRunner(Supplier<Minimizer> minimizerFactory, Supplier<MinimizationLimits> limitsFactory, int threadsCount) {
+        if(threadsCount <= 0) {
+            throw new RuntimeException("threads count must be positive: " + threadsCount);
+        }
+        this.minimizerFactory = minimizerFactory;
+        this.limitsFactory = limitsFactory;
+        this.threadsCount = threadsCount;
+        this.window = threadsCount * 4;
+    }
+
+    public long getStoppedCount() {
+        return stoppedCount.get();
+    }
+
+    // минимизация всех векторов из reader с записью результатов в writer, возвращает число обработанных функций
+    public long run(BufferedReader reader, Writer writer) throws IOException {
+        Source source = () -> {
+            String line;
+            while((line = reader.readLine()) != null) {
+                var vector = line.trim();
+                if(!vector.isEmpty()) {
+                    // ошибка в векторе - ошибка минимизации этой функции
+                    return () -> new BooleanFunction(vector);
+                }
+            }
+            return null;
+        };
+        return run(source, result -> write(result, writer), writer);
+    }
+
+    // минимизация всех функций из reader с записью минимизированных ДНФ в writer в двоичном формате
+    // (ошибка минимизации прерывает обработку, так как записи выхода соответствуют записям входа по порядку)
+    public long run(FunctionReader reader, FunctionWriter writer) throws IOException {
+        Source source = () -> {
+            var f = reader.read();
+            // минимизируется вектор значений (записанная ДНФ не используется как начальная)
+            return f == null ? null : () -> new BooleanFunction(f.getVariablesCount(), f.toLongArray());
+        };
+        return run(source, result -> write(result, writer), writer);
+    }
+
+    private long run(Source source, Sink sink, Flushable output) throws IOException {
+        var executor = Executors.newFixedThreadPool(threadsCount);
+        long count = 0;
+        try {
+            Deque<Future<MinimizationResult>> pending = new ArrayDeque<>(window);
+            Callable<BooleanFunction> function;
+            while((function = source.next()) != null) {
+                if(pending.size() == window) {
+                    sink.write(pending.removeFirst());
+                }
+                var f = function;
+                pending.addLast(executor.submit(() -> minimize(f.call())));
+                count++;
+            }
+            while(!pending.isEmpty()) {
+                sink.write(pending.removeFirst());
+            }
+            output.flush();
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        return count;
+    }
+
+    private MinimizationResult minimize(BooleanFunction f) {
+        var minimizer = minimizerFactory.get();
+        var limits = limitsFactory.get();
+        if(limits.isUnlimited()) {
+            return new MinimizationResult(minimizer.minimize(f), new MinimizationStats());
+        }
+        var res = minimizer.minimize(f, limits);
+        if(!res.isOptimal()) {
+            stoppedCount.incrementAndGet();
+        }
+        return res;
+    }
+
+    // запись результата функции (ошибка минимизации одной функции не прерывает обработку остальных)
+    private static void write(Future<MinimizationResult> result, Writer writer) throws IOException {
+        String s;
+        try {
+            var res = get(result);
+            s = res.getFunction().toString();
+            if(!res.isOptimal()) {
+                s += " # not optimal: " + res.getStats().getExceededLimit() + " in " + res.getStats().getExceededPhase();
+            }
+        }
+        catch(ExecutionException e) {
+            s = "error: " + e.getCause().getMessage();
+        }
+        writer.write(s);
+        writer.write('\n');
+    }
+
+    private static void write(Future<MinimizationResult> result, FunctionWriter writer) throws IOException {
+        try {
+            writer.writeDnf(get(result).getFunction());
+        }
+        catch(ExecutionException e) {
+            throw new RuntimeException("Batch minimization failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private static MinimizationResult get(Future<MinimizationResult> result) throws ExecutionException {
+        try {
+            return result.get();
+        }
+        catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Batch minimization interrupted", e);
+        }
+    }
+
+    // источник функций: следующая функция (строится в потоке минимизации), null - функции закончились
+    private interface Source {
+        Callable<BooleanFunction> next() throws IOException;
+    }
+
+    // запись результата очередной функции
+    private interface Sink {
+        void write(Future<MinimizationResult> result) throws IOException;
+    }
+}
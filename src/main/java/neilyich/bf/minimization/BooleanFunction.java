@@ -6,45 +6,55 @@ import lombok.Setter;
 import java.util.*;
 
 // реализация логики работы булевой функции
+// вектор значений хранится упакованным в массив long (бит с номером i - значение функции на наборе i),
+// СДНФ строится только при первом обращении
 public class BooleanFunction {
+    public static final int MAX_VARIABLES_COUNT = 30;
+
     @Getter
-    private int variablesCount;
-    @Getter
-    private String vector;
+    private final int variablesCount;
+    private final long[] table;
     @Setter
     private List<Implicant> sdnfForm;
-    @Getter
-    private final Set<Integer> ones;
 
     // конструктор принимает на вход строку, состоящую из 0 и 1
     public BooleanFunction(String s) {
-        if(!isPowOf2(s.length())) {
+        if(s.isEmpty() || !isPowOf2(s.length()) || s.length() > 1 << MAX_VARIABLES_COUNT) {
             throw new RuntimeException("length of BF vector is not 2^n: " + s.length());
         }
-        variablesCount = (int) Math.round(Math.log(s.length()) / Math.log(2));
-        vector = s;
-        ones = new HashSet<>();
+        variablesCount = Integer.numberOfTrailingZeros(s.length());
+        table = new long[TruthTables.wordsCount(variablesCount)];
         for(int i = 0; i < s.length(); i++) {
             if(s.charAt(i) == '1') {
-                ones.add(i);
+                table[i >>> 6] |= 1L << i;
             }
             else if(s.charAt(i) != '0') {
                 throw new RuntimeException("unexpected symbol: " + s.charAt(i));
             }
         }
-        sdnfForm = new ArrayList<>(ones.size());
-        for(var num: ones) {
-            sdnfForm.add(new Implicant(variablesCount, num));
-        }
     }
 
-    private BooleanFunction() {
-        ones = new HashSet<>();
-        variablesCount = 0;
-        vector = "";
+    // конструктор, принимающий упакованный вектор значений (бит i слова k - значение на наборе 64 * k + i)
+    public BooleanFunction(int variablesCount, long[] table) {
+        if(variablesCount < 0 || variablesCount > MAX_VARIABLES_COUNT) {
+            throw new RuntimeException("unsupported variables count: " + variablesCount);
+        }
+        if(table.length != TruthTables.wordsCount(variablesCount)) {
+            throw new RuntimeException("table of " + table.length + " words does not match " + variablesCount + " variables");
+        }
+        this.variablesCount = variablesCount;
+        this.table = table;
+        table[table.length - 1] &= TruthTables.wordMask(variablesCount);
     }
 
     public List<Implicant> sdnf() {
+        if(sdnfForm == null) {
+            var ones = getOnes();
+            sdnfForm = new ArrayList<>(ones.length);
+            for(var num: ones) {
+                sdnfForm.add(new Implicant(variablesCount, num));
+            }
+        }
         return sdnfForm;
     }
 
@@ -52,9 +62,46 @@ public class BooleanFunction {
         return (n & (n - 1)) == 0;
     }
 
+    // значение функции на наборе с заданным номером
+    public boolean get(int n) {
+        return (table[n >>> 6] & (1L << n)) != 0;
+    }
+
+    // число наборов, на которых функция равна 1
+    public int onesCount() {
+        int count = 0;
+        for(long word: table) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    // номера наборов, на которых функция равна 1 (в порядке возрастания)
+    public int[] getOnes() {
+        int[] ones = new int[onesCount()];
+        int k = 0;
+        for(int w = 0; w < table.length; w++) {
+            for(long rest = table[w]; rest != 0; rest &= rest - 1) {
+                ones[k++] = (w << 6) + Long.numberOfTrailingZeros(rest);
+            }
+        }
+        return ones;
+    }
+
+    // получение вектора значений в виде строки из 0 и 1
+    public String getVector() {
+        int length = 1 << variablesCount;
+        var builder = new StringBuilder(length);
+        for(int i = 0; i < length; i++) {
+            builder.append(get(i) ? '1' : '0');
+        }
+        return builder.toString();
+    }
+
     // получение строкового представления БФ в виде ДНФ
     @Override
     public String toString() {
+        var sdnfForm = sdnf();
         if(sdnfForm.isEmpty()) {
             return "0";
         }
@@ -75,27 +122,38 @@ public class BooleanFunction {
         if(implicants.isEmpty()) {
             return new BooleanFunction("0");
         }
-        if(implicants.size() == 1 && implicants.get(0).toString().length() == 0) {
-            return new BooleanFunction("1");
-        }
-        var f = new BooleanFunction();
-        f.variablesCount = implicants.get(0).getVariablesCount();
-        f.sdnfForm = implicants;
-        f.sortSdnf();
+        return of(implicants.get(0).getVariablesCount(), implicants);
+    }
+
+    // конструктор, позволяющий получить БФ заданного числа переменных из ее ДНФ
+    public static BooleanFunction of(int variablesCount, List<Implicant> implicants) {
+        var f = new BooleanFunction(variablesCount, new long[TruthTables.wordsCount(variablesCount)]);
         for(var impl: implicants) {
-            if(impl.getVariablesCount() != f.variablesCount) {
+            if(impl.getVariablesCount() != variablesCount) {
                 throw new RuntimeException("Different vars counts");
             }
-            f.ones.addAll(impl.generateOnes());
-        }
-        var builder = new StringBuilder("0".repeat((int) Math.round(Math.pow(2, f.variablesCount))));
-        for(var n: f.ones) {
-            builder.setCharAt(n, '1');
+            TruthTables.fill(f.table, variablesCount, impl);
         }
-        f.vector = builder.toString();
+        f.sdnfForm = new ArrayList<>(implicants);
+        f.sortSdnf();
         return f;
     }
 
+    // true - если импликанта является импликантой функции (функция равна 1 на всех покрываемых ей наборах)
+    public boolean isImplicant(Implicant impl) {
+        return TruthTables.containsAll(table, variablesCount, impl);
+    }
+
+    // число единичных наборов функции среди покрываемых импликантой
+    public int countOnes(Implicant impl) {
+        return TruthTables.count(table, variablesCount, impl);
+    }
+
+    // копия упакованного вектора значений
+    public long[] toLongArray() {
+        return table.clone();
+    }
+
     // конструктор, позволяющий получить БФ из строки ее ДНФ (пр.: x0!x1 v !x0x1)
     public static BooleanFunction fromString(int variablesCount, String sdnfStr) {
         String[] impls = sdnfStr.split("\\s+v\\s+");
@@ -109,15 +167,28 @@ public class BooleanFunction {
     // подсчет числа литералов в представлении функции в виде СДНФ
     public int weight() {
         int w = 0;
-        for(var s: sdnfForm) {
+        for(var s: sdnf()) {
             w += s.literalsCount();
         }
         return w;
     }
 
     // true - если обе БФ реализуют одну и ту же логическую функцию (но могут иметь разные ДНФ)
+    // (сравниваются множества единичных наборов, недостающие слова более короткой таблицы считаются нулевыми)
     public boolean isSame(BooleanFunction f) {
-        return ones.equals(f.ones);
+        int common = Math.min(table.length, f.table.length);
+        for(int i = 0; i < common; i++) {
+            if(table[i] != f.table[i]) {
+                return false;
+            }
+        }
+        var longer = table.length > f.table.length ? table : f.table;
+        for(int i = common; i < longer.length; i++) {
+            if(longer[i] != 0) {
+                return false;
+            }
+        }
+        return true;
     }
 
     // сравнение минимальности двух функций между собой
@@ -125,7 +196,7 @@ public class BooleanFunction {
         if(!isSame(f)) {
             throw new RuntimeException("Cant compare not same functions");
         }
-        int res = Integer.compare(sdnfForm.size(), f.sdnfForm.size());
+        int res = Integer.compare(sdnf().size(), f.sdnf().size());
         if(res == 0) {
             int w1 = weight();
             int w2 = f.weight();
@@ -140,24 +211,23 @@ public class BooleanFunction {
         if (o == null || getClass() != o.getClass()) return false;
         BooleanFunction that = (BooleanFunction) o;
         return variablesCount == that.variablesCount &&
-                Objects.equals(vector, that.vector) &&
-                Objects.equals(sdnfForm, that.sdnfForm) &&
-                Objects.equals(ones, that.ones);
+                Arrays.equals(table, that.table) &&
+                Objects.equals(sdnf(), that.sdnf());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(variablesCount, vector, sdnfForm, ones);
+        return Objects.hash(variablesCount, Arrays.hashCode(table), sdnf());
     }
 
     private void sortSdnf() {
-        sdnfForm.sort(Implicant::compareTo);
+        sdnf().sort(Implicant::compareTo);
     }
 
     // возвращает только те импликанты, которых нет в БФ f
     public Set<Implicant> diff(BooleanFunction f) {
-        Set<Implicant> s1 = new HashSet<>(sdnfForm);
-        s1.removeAll(new HashSet<>(f.sdnfForm));
+        Set<Implicant> s1 = new HashSet<>(sdnf());
+        s1.removeAll(new HashSet<>(f.sdnf()));
         return s1;
     }
 }
@@ -0,0 +1,40 @@
+package neilyich.bf.minimization;
+
+// признак отмены минимизации, может быть выставлен из любого потока (отмену нельзя снять)
+public class CancellationToken {
+    private volatile boolean cancelled;
+    // признаки, отмена любого из которых также означает отмену этого (null - таких нет)
+    private final CancellationToken[] linked;
+
+    public CancellationToken() {
+        this.linked = null;
+    }
+
+    private CancellationToken(CancellationToken... linked) {
+        this.linked = linked;
+    }
+
+    // признак, выставленный при отмене любого из признаков first и second
+    // (отмена полученного признака не отменяет исходные)
+    public static CancellationToken anyOf(CancellationToken first, CancellationToken second) {
+        return new CancellationToken(first, second);
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        if(cancelled) {
+            return true;
+        }
+        if(linked != null) {
+            for(var token: linked) {
+                if(token.isCancelled()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
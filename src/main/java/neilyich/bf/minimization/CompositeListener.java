@@ -0,0 +1,97 @@
+package neilyich.bf.minimization;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+// передача событий минимизации нескольким слушателям по порядку
+public class CompositeListener implements MinimizationListener {
+    private final List<MinimizationListener> listeners;
+
+    public CompositeListener(MinimizationListener... listeners) {
+        this.listeners = List.of(listeners);
+    }
+
+    @Override
+    public boolean isTracing() {
+        for(var l: listeners) {
+            if(l.isTracing()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void onStart(BooleanFunction f) {
+        for(var l: listeners) {
+            l.onStart(f);
+        }
+    }
+
+    // текст строится один раз, даже если его выводят несколько слушателей
+    @Override
+    public void onTrace(String title, Supplier<String> text) {
+        if(!isTracing()) {
+            return;
+        }
+        String[] cached = new String[1];
+        Supplier<String> once = () -> {
+            if(cached[0] == null) {
+                cached[0] = text.get();
+            }
+            return cached[0];
+        };
+        for(var l: listeners) {
+            l.onTrace(title, once);
+        }
+    }
+
+    @Override
+    public void onPhase(String phase, long nanos) {
+        for(var l: listeners) {
+            l.onPhase(phase, nanos);
+        }
+    }
+
+    @Override
+    public void onStage(int stage, int implicantsCount, int mergedCount, int primesCount) {
+        for(var l: listeners) {
+            l.onStage(stage, implicantsCount, mergedCount, primesCount);
+        }
+    }
+
+    @Override
+    public void onCoverageTable(int rowsBefore, int columnsBefore, int rowsAfter, int columnsAfter) {
+        for(var l: listeners) {
+            l.onCoverageTable(rowsBefore, columnsBefore, rowsAfter, columnsAfter);
+        }
+    }
+
+    @Override
+    public void onCoverSearch(long nodesCount) {
+        for(var l: listeners) {
+            l.onCoverSearch(nodesCount);
+        }
+    }
+
+    @Override
+    public void onCoefsSystem(int lines, int coefs, int reducedLines, int reducedCoefs) {
+        for(var l: listeners) {
+            l.onCoefsSystem(lines, coefs, reducedLines, reducedCoefs);
+        }
+    }
+
+    @Override
+    public void onLimitExceeded(MinimizationLimits.Limit limit, String phase) {
+        for(var l: listeners) {
+            l.onLimitExceeded(limit, phase);
+        }
+    }
+
+    @Override
+    public void onFinish(BooleanFunction result) {
+        for(var l: listeners) {
+            l.onFinish(result);
+        }
+    }
+}
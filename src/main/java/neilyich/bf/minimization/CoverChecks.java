@@ -0,0 +1,189 @@
+package neilyich.bf.minimization;
+
+import java.util.List;
+
+// проверка эквивалентности и вложенности ДНФ без перебора наборов: куб содержится в покрытии, если кофактор
+// покрытия по этому кубу - тавтология
+// тавтология проверяется рекурсивным разложением по бинатным переменным (кофакторы по литералам) с унатным
+// сокращением: если переменная входит в кубы только с одним знаком, покрытие - тавтология тогда и только тогда,
+// когда тавтология - кубы, не содержащие эту переменную
+// покрытие хранится в виде массивов масок литералов и их значений, поэтому при разложении не создаются импликанты
+// (поддерживаются кубы не более чем от 64 переменных)
+public final class CoverChecks {
+    private CoverChecks() {
+    }
+
+    // маски кубов более чем от 64 переменных не помещаются в одно слово, поэтому такие кубы не поддерживаются
+    private static long care(Implicant cube) {
+        return checkVariablesCount(cube) == 0 ? 0 : cube.careWord(0);
+    }
+
+    private static long values(Implicant cube) {
+        return checkVariablesCount(cube) == 0 ? 0 : cube.valuesWord(0);
+    }
+
+    private static int checkVariablesCount(Implicant cube) {
+        int variablesCount = cube.getVariablesCount();
+        if(variablesCount > 64) {
+            throw new RuntimeException("too many variables for cover checks: " + variablesCount + " (max 64)");
+        }
+        return variablesCount;
+    }
+
+    // true - если ДНФ равна 1 на всех наборах
+    public static boolean isTautology(List<Implicant> cover) {
+        long[] care = new long[cover.size()];
+        long[] values = new long[cover.size()];
+        for(int i = 0; i < care.length; i++) {
+            care[i] = care(cover.get(i));
+            values[i] = values(cover.get(i));
+        }
+        return isTautology(care, values, care.length);
+    }
+
+    // true - если все наборы куба покрываются ДНФ cover
+    public static boolean contains(List<Implicant> cover, Implicant cube) {
+        return contains(cover, List.of(cube));
+    }
+
+    // true - если все единичные наборы ДНФ other покрываются ДНФ cover (other -> cover)
+    public static boolean contains(List<Implicant> cover, List<Implicant> other) {
+        checkVariablesCount(cover, other);
+        int count = cover.size();
+        long[] care = new long[count];
+        long[] values = new long[count];
+        for(int i = 0; i < count; i++) {
+            care[i] = care(cover.get(i));
+            values[i] = values(cover.get(i));
+        }
+        long[] cofactorCare = new long[count];
+        long[] cofactorValues = new long[count];
+        for(var cube: other) {
+            if(!contains(care, values, count, care(cube), values(cube), cofactorCare, cofactorValues)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // true - если ДНФ реализуют одну и ту же функцию
+    public static boolean isEquivalent(List<Implicant> a, List<Implicant> b) {
+        return contains(a, b) && contains(b, a);
+    }
+
+    // true - если ДНФ функций реализуют одну и ту же функцию (сравниваются ДНФ, а не векторы значений)
+    public static boolean isEquivalent(BooleanFunction f, BooleanFunction g) {
+        if(f.getVariablesCount() != g.getVariablesCount()) {
+            throw new RuntimeException("Different vars counts");
+        }
+        return isEquivalent(f.sdnf(), g.sdnf());
+    }
+
+    // проверка вложенности куба в покрытие из count первых кубов care/values
+    // (cofactorCare, cofactorValues - место для кофактора покрытия по кубу)
+    private static boolean contains(long[] care, long[] values, int count, long cubeCare, long cubeValues,
+                                    long[] cofactorCare, long[] cofactorValues) {
+        int k = 0;
+        for(int i = 0; i < count; i++) {
+            // куб не пересекается с кубом покрытия
+            if(((values[i] ^ cubeValues) & care[i] & cubeCare) != 0) {
+                continue;
+            }
+            // куб содержится в одном кубе покрытия
+            if((care[i] & ~cubeCare) == 0) {
+                return true;
+            }
+            cofactorCare[k] = care[i] & ~cubeCare;
+            cofactorValues[k] = values[i];
+            k++;
+        }
+        return isTautology(cofactorCare, cofactorValues, k);
+    }
+
+    // проверка тавтологии покрытия из count первых кубов care/values (массивы могут быть изменены)
+    private static boolean isTautology(long[] care, long[] values, int count) {
+        long positive;
+        long negative;
+        while(true) {
+            if(count == 0) {
+                return false;
+            }
+            positive = 0;
+            negative = 0;
+            for(int i = 0; i < count; i++) {
+                if(care[i] == 0) {
+                    return true;
+                }
+                positive |= care[i] & values[i];
+                negative |= care[i] & ~values[i];
+            }
+            long unate = positive ^ negative;
+            if(unate == 0) {
+                break;
+            }
+            // унатное сокращение: остаются кубы без литералов унатных переменных
+            int k = 0;
+            for(int i = 0; i < count; i++) {
+                if((care[i] & unate) == 0) {
+                    care[k] = care[i];
+                    values[k] = values[i];
+                    k++;
+                }
+            }
+            count = k;
+        }
+        // кубы покрывают меньше наборов, чем их всего
+        double volume = 0;
+        for(int i = 0; i < count && volume < 1; i++) {
+            volume += Math.scalb(1.0, -Long.bitCount(care[i]));
+        }
+        if(volume < 1) {
+            return false;
+        }
+        long bit = 1L << mostFrequent(care, count, positive & negative);
+        return isCofactorTautology(care, values, count, bit, true) && isCofactorTautology(care, values, count, bit, false);
+    }
+
+    // проверка тавтологии кофактора покрытия по литералу (переменная с маской bit принимает значение value)
+    private static boolean isCofactorTautology(long[] care, long[] values, int count, long bit, boolean value) {
+        long[] cofactorCare = new long[count];
+        long[] cofactorValues = new long[count];
+        long literal = value ? bit : 0;
+        int k = 0;
+        for(int i = 0; i < count; i++) {
+            if((care[i] & bit) == 0 || (values[i] & bit) == literal) {
+                cofactorCare[k] = care[i] & ~bit;
+                cofactorValues[k] = values[i];
+                k++;
+            }
+        }
+        return isTautology(cofactorCare, cofactorValues, k);
+    }
+
+    // переменная из маски, встречающаяся в наибольшем числе кубов
+    private static int mostFrequent(long[] care, int count, long candidates) {
+        int best = Long.numberOfTrailingZeros(candidates);
+        int bestCount = -1;
+        for(long rest = candidates; rest != 0; rest &= rest - 1) {
+            int var = Long.numberOfTrailingZeros(rest);
+            long bit = 1L << var;
+            int varCount = 0;
+            for(int i = 0; i < count; i++) {
+                if((care[i] & bit) != 0) {
+                    varCount++;
+                }
+            }
+            if(varCount > bestCount) {
+                bestCount = varCount;
+                best = var;
+            }
+        }
+        return best;
+    }
+
+    private static void checkVariablesCount(List<Implicant> a, List<Implicant> b) {
+        if(!a.isEmpty() && !b.isEmpty() && a.get(0).getVariablesCount() != b.get(0).getVariablesCount()) {
+            throw new RuntimeException("Different vars counts");
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package neilyich.bf.minimization;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+// вычисление значений ДНФ на наборах: ДНФ компилируется в массивы масок литералов и их значений
+// набор задается числом (бит i - значение i-й переменной, т.е. номером набора), результаты для нескольких наборов
+// упаковываются в биты (бит j слова k - значение на наборе с индексом 64 * k + j)
+// при вычислении по 64 набора одновременно наборы транспонируются в битовые срезы (бит j среза v - значение
+// v-й переменной в j-м наборе), и каждое слагаемое вычисляется как конъюнкция срезов (или их отрицаний)
+// объект не изменяется, поэтому его можно использовать из нескольких потоков одновременно
+// (поддерживаются ДНФ не более чем от 64 переменных)
+public class DnfEvaluator {
+    // число блоков по 64 набора, вычисляемых одной задачей параллельного вычисления
+    private static final int PARALLEL_CHUNK_BLOCKS = 64;
+
+    private final int variablesCount;
+    // маски литералов и их значений по слагаемым (слагаемые с меньшим числом литералов идут первыми,
+    // так как чаще равны 1)
+    private final long[] care;
+    private final long[] values;
+    // литералы слагаемых подряд: номер переменной и маска отрицания (-1 - литерал с отрицанием, 0 - без),
+    // литералы слагаемого i занимают позиции с offsets[i] до offsets[i + 1]
+    private final int[] literalVariables;
+    private final long[] literalNegations;
+    private final int[] offsets;
+
+    public DnfEvaluator(int variablesCount, List<Implicant> dnf) {
+        if(variablesCount > 64) {
+            throw new RuntimeException("too many variables for evaluation: " + variablesCount + " (max 64)");
+        }
+        this.variablesCount = variablesCount;
+        List<Implicant> sorted = new ArrayList<>(dnf);
+        for(var impl: sorted) {
+            if(impl.getVariablesCount() != variablesCount) {
+                throw new RuntimeException("Different vars counts");
+            }
+        }
+        sorted.sort(Comparator.comparingInt(Implicant::literalsCount));
+        care = new long[sorted.size()];
+        values = new long[sorted.size()];
+        offsets = new int[sorted.size() + 1];
+        for(int i = 0; i < care.length; i++) {
+            care[i] = variablesCount == 0 ? 0 : sorted.get(i).careWord(0);
+            values[i] = variablesCount == 0 ? 0 : sorted.get(i).valuesWord(0);
+            offsets[i + 1] = offsets[i] + Long.bitCount(care[i]);
+        }
+        literalVariables = new int[offsets[care.length]];
+        literalNegations = new long[offsets[care.length]];
+        for(int i = 0, k = 0; i < care.length; i++) {
+            for(long rest = care[i]; rest != 0; rest &= rest - 1, k++) {
+                int var = Long.numberOfTrailingZeros(rest);
+                literalVariables[k] = var;
+                literalNegations[k] = (values[i] & (1L << var)) != 0 ? 0 : -1L;
+            }
+        }
+    }
+
+    // вычислитель ДНФ минимизированной функции
+    public static DnfEvaluator of(BooleanFunction f) {
+        return new DnfEvaluator(f.getVariablesCount(), f.sdnf());
+    }
+
+    public int getVariablesCount() {
+        return variablesCount;
+    }
+
+    // значение ДНФ на одном наборе
+    public boolean evaluate(long input) {
+        for(int i = 0; i < care.length; i++) {
+            if(((input ^ values[i]) & care[i]) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // значения ДНФ на 64 наборах, заданных битовыми срезами (slices[v] - значения v-й переменной в наборах)
+    public long evaluateSliced(long[] slices) {
+        if(slices.length < variablesCount) {
+            throw new RuntimeException("expected " + variablesCount + " slices, got " + slices.length);
+        }
+        long res = 0;
+        for(int i = 0; i < care.length && res != -1L; i++) {
+            long term = -1L;
+            for(int k = offsets[i]; k < offsets[i + 1]; k++) {
+                term &= slices[literalVariables[k]] ^ literalNegations[k];
+            }
+            res |= term;
+        }
+        return res;
+    }
+
+    // значения ДНФ на наборах inputs (бит j слова k результата - значение на наборе inputs[64 * k + j])
+    public long[] evaluate(long[] inputs) {
+        var res = new long[blocksCount(inputs)];
+        var block = new long[64];
+        for(int b = 0; b < res.length; b++) {
+            res[b] = evaluateBlock(inputs, b, block);
+        }
+        return res;
+    }
+
+    // то же, что evaluate(inputs), но блоки наборов вычисляются параллельно (в общем пуле ForkJoinPool)
+    public long[] evaluateParallel(long[] inputs) {
+        var res = new long[blocksCount(inputs)];
+        int chunks = (res.length + PARALLEL_CHUNK_BLOCKS - 1) / PARALLEL_CHUNK_BLOCKS;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            var block = new long[64];
+            int end = Math.min(res.length, (chunk + 1) * PARALLEL_CHUNK_BLOCKS);
+            for(int b = chunk * PARALLEL_CHUNK_BLOCKS; b < end; b++) {
+                res[b] = evaluateBlock(inputs, b, block);
+            }
+        });
+        return res;
+    }
+
+    private static int blocksCount(long[] inputs) {
+        return (inputs.length + 63) >>> 6;
+    }
+
+    // вычисление b-го блока из 64 наборов (block - место для срезов, в неполном последнем блоке
+    // недостающие наборы считаются нулевыми, а их результаты - равными 0)
+    private long evaluateBlock(long[] inputs, int b, long[] block) {
+        int from = b << 6;
+        int count = Math.min(64, inputs.length - from);
+        System.arraycopy(inputs, from, block, 0, count);
+        Arrays.fill(block, count, 64, 0);
+        transpose(block);
+        long res = evaluateSliced(block);
+        return count == 64 ? res : res & ((1L << count) - 1);
+    }
+
+    // транспонирование битовой матрицы 64 x 64: бит j слова i переходит в бит i слова j
+    // (обмен блоков 32 x 32, затем 16 x 16 и т.д. внутри каждого блока)
+    static void transpose(long[] a) {
+        swap(a, 32, 0x00000000FFFFFFFFL);
+        swap(a, 16, 0x0000FFFF0000FFFFL);
+        swap(a, 8, 0x00FF00FF00FF00FFL);
+        swap(a, 4, 0x0F0F0F0F0F0F0F0FL);
+        swap(a, 2, 0x3333333333333333L);
+        swap(a, 1, 0x5555555555555555L);
+    }
+
+    // обмен младших битов блоков размера j слов k + j со старшими битами слов k
+    private static void swap(long[] a, int j, long mask) {
+        for(int base = 0; base < 64; base += j << 1) {
+            for(int k = base; k < base + j; k++) {
+                long t = ((a[k] >>> j) ^ a[k + j]) & mask;
+                a[k] ^= t << j;
+                a[k + j] ^= t;
+            }
+        }
+    }
+}
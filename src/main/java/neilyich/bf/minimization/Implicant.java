@@ -5,124 +5,142 @@ import lombok.Getter;
 import java.util.*;
 
 // реализация логики работы импликанты
+// импликанта хранится в виде двух битовых масок: care (1 - литерал присутствует в импликанте)
+// и values (значения присутствующих литералов, вне care всегда 0), по 64 переменные в одном слове
 public class Implicant implements Comparable<Implicant>{
 
-    private final Boolean[] literals;
-    @Getter
-    private int weight;
+    private final long[] care;
+    private final long[] values;
     @Getter
     private final int variablesCount;
 
     public Implicant(int variablesCount) {
         this.variablesCount = variablesCount;
-        this.literals = new Boolean[variablesCount];
+        this.care = new long[wordsCount(variablesCount)];
+        this.values = new long[care.length];
     }
 
     // создание импликанты по числу переменных и ее порядковому номеру
     public Implicant(int variablesCount, int number) {
         this(variablesCount);
-        int pos = 0;
-        int w = 0;
-        while(number > 0) {
-            if(number % 2 == 1) {
-                literals[pos] = true;
-                w++;
-            }
-            else {
-                literals[pos] = false;
-            }
-            number /= 2;
-            pos++;
+        for (int i = 0; i < care.length; i++) {
+            care[i] = -1L;
         }
-        while(pos < literals.length) {
-            literals[pos++] = false;
+        if(care.length > 0) {
+            care[care.length - 1] = lastWordMask(variablesCount);
+            values[0] = number & care[0];
+        }
+    }
+
+    // создание импликанты по маскам (для числа переменных не больше 64)
+    public Implicant(int variablesCount, long care, long values) {
+        this(variablesCount);
+        if(this.care.length > 1) {
+            throw new RuntimeException("too many variables for single word implicant: " + variablesCount);
+        }
+        if(this.care.length == 1) {
+            this.care[0] = care & lastWordMask(variablesCount);
+            this.values[0] = values & this.care[0];
         }
-        weight = w;
     }
 
     public Implicant(Implicant implicant) {
-        weight = implicant.weight;
         variablesCount = implicant.variablesCount;
-        literals = Arrays.copyOf(implicant.literals, implicant.literals.length);
+        care = Arrays.copyOf(implicant.care, implicant.care.length);
+        values = Arrays.copyOf(implicant.values, implicant.values.length);
+    }
+
+    private static int wordsCount(int variablesCount) {
+        return (variablesCount + 63) >>> 6;
+    }
+
+    private static long lastWordMask(int variablesCount) {
+        int rest = variablesCount & 63;
+        return rest == 0 ? -1L : (1L << rest) - 1;
+    }
+
+    // число 64-битных слов, в которых хранится импликанта
+    public int getWordsCount() {
+        return care.length;
+    }
+
+    // маска присутствующих литералов в слове с заданным номером
+    public long careWord(int word) {
+        return care[word];
+    }
+
+    // значения присутствующих литералов в слове с заданным номером
+    public long valuesWord(int word) {
+        return values[word];
+    }
+
+    // число литералов без отрицания
+    public int getWeight() {
+        int w = 0;
+        for (long v : values) {
+            w += Long.bitCount(v);
+        }
+        return w;
     }
 
     // установка степени заданного литерала (val == null - исключение литерала из данной импликанты)
     public void set(int pos, Boolean val) {
-        if(literals[pos] != null) {
-            if(val != null) {
-                if(literals[pos] && !val) {
-                    weight--;
-                }
-                else if(!literals[pos] && val) {
-                    weight++;
-                }
-            }
+        if(pos >= variablesCount) {
+            throw new ArrayIndexOutOfBoundsException(pos);
         }
-        else if(val != null) {
+        int word = pos >>> 6;
+        long bit = 1L << pos;
+        if(val == null) {
+            care[word] &= ~bit;
+            values[word] &= ~bit;
+        }
+        else {
+            care[word] |= bit;
             if(val) {
-                weight++;
+                values[word] |= bit;
+            }
+            else {
+                values[word] &= ~bit;
             }
         }
-        literals[pos] = val;
+    }
+
+    private static void checkLengths(Implicant a, Implicant b) {
+        if(a.variablesCount != b.variablesCount) {
+            throw new RuntimeException("implicants of different lengths: " + a.variablesCount + ", " + b.variablesCount);
+        }
     }
 
     // если 2 импликанты можно склеить - возвращает полученную импликанту
+    // (склеивать можно, если импликанты отличаются не более чем в одной позиции)
     public static Optional<Implicant> tryIntersect(Implicant a, Implicant b) {
-        if(a.literals.length != b.literals.length) {
-            throw new RuntimeException("implicants of different lengths: " + a.literals.length + ", " + b.literals.length);
-        }
-        Implicant result = new Implicant(a.literals.length);
-        boolean dif = false;
-        Boolean value;
-        for (int i = 0; i < a.literals.length; i++) {
-            value = null;
-            if(a.literals[i] != null) {
-                if(b.literals[i] != null) {
-                    if(a.literals[i] == b.literals[i]) {
-                        value = a.literals[i];
-                    }
-                    else {
-                        if(dif) {
-                            return Optional.empty();
-                        }
-                        dif = true;
-                    }
-                }
-                else {
-                    if(dif) {
-                        return Optional.empty();
-                    }
-                    dif = true;
-                }
-            }
-            else if(b.literals[i] != null) {
-                if(dif) {
-                    return Optional.empty();
-                }
-                dif = true;
+        checkLengths(a, b);
+        int difs = 0;
+        for (int i = 0; i < a.care.length; i++) {
+            difs += Long.bitCount(difference(a, b, i));
+            if(difs > 1) {
+                return Optional.empty();
             }
-            result.set(i, value);
+        }
+        Implicant result = new Implicant(a.variablesCount);
+        for (int i = 0; i < a.care.length; i++) {
+            result.care[i] = a.care[i] & b.care[i] & ~difference(a, b, i);
+            result.values[i] = a.values[i] & result.care[i];
         }
         return Optional.of(result);
     }
 
+    // позиции слова, в которых импликанты отличаются (литерал есть только в одной из них либо имеет разные значения)
+    private static long difference(Implicant a, Implicant b, int word) {
+        return (a.care[word] ^ b.care[word]) | (a.values[word] ^ b.values[word]);
+    }
+
     // true - если данная импликанта (this) покрывает вторую импликанту (implicant)
     public boolean covers(Implicant implicant) {
-        if(literals.length != implicant.literals.length) {
-            throw new RuntimeException("implicants of different lengths: " + literals.length + ", " + implicant.literals.length);
-        }
-        for(int i = 0; i < literals.length; i++) {
-            Boolean r = literals[i];
-            Boolean l = implicant.literals[i];
-            if(r != null) {
-                if(l != null) {
-                    if(r != l) {
-                        return false;
-                    }
-                }
-                else {
-                    return false;
-                }
+        checkLengths(this, implicant);
+        for(int i = 0; i < care.length; i++) {
+            if((care[i] & ~implicant.care[i]) != 0 || ((values[i] ^ implicant.values[i]) & care[i]) != 0) {
+                return false;
             }
         }
         return true;
@@ -132,13 +150,13 @@ public class Implicant implements Comparable<Implicant>{
     @Override
     public String toString() {
         var builder = new StringBuilder();
-        for (int i = 0; i < literals.length; i++) {
-            Boolean l = literals[i];
-            if (l != null) {
-                if (l) {
-                    builder.append('x').append(i);
+        for (int w = 0; w < care.length; w++) {
+            for (long rest = care[w]; rest != 0; rest &= rest - 1) {
+                int bit = Long.numberOfTrailingZeros(rest);
+                if ((values[w] & (1L << bit)) != 0) {
+                    builder.append('x').append((w << 6) + bit);
                 } else {
-                    builder.append("!x").append(i);
+                    builder.append("!x").append((w << 6) + bit);
                 }
             }
         }
@@ -147,16 +165,13 @@ public class Implicant implements Comparable<Implicant>{
 
     // получение строкового представления импликанты (в бинарном виде)
     public String toBinaryString() {
-        var builder = new StringBuilder();
-        for (Boolean l : literals) {
+        var builder = new StringBuilder(variablesCount);
+        for (int i = variablesCount - 1; i >= 0; i--) {
+            Boolean l = get(i);
             if (l != null) {
-                if (l) {
-                    builder.insert(0, '1');
-                } else {
-                    builder.insert(0, '0');
-                }
+                builder.append(l ? '1' : '0');
             } else {
-                builder.insert(0, '*');
+                builder.append('*');
             }
         }
         return builder.toString();
@@ -165,27 +180,19 @@ public class Implicant implements Comparable<Implicant>{
     // сравнение двух импликант по числу литералов
     @Override
     public int compareTo(Implicant impl) {
-        if(this.literals.length != impl.literals.length) {
-            throw new RuntimeException("implicants of different lengths: " + this.literals.length + ", " + impl.literals.length);
-        }
+        checkLengths(this, impl);
         int res = Integer.compare(this.literalsCount(), impl.literalsCount());
         if(res != 0) {
             return res;
         }
-        for (int i = 0; i < literals.length; i++) {
-            var n1 = literals[i] == null;
-            var n2 = impl.literals[i] == null;
-            if(n1 && !n2) {
-                return 1;
-            }
-            else if(!n1 && n2) {
-                return -1;
-            }
-            else if(!n1 && !n2) {
-                int prior = Boolean.compare(impl.literals[i], literals[i]);
-                if(prior != 0) {
-                    return prior;
+        for (int i = 0; i < care.length; i++) {
+            long dif = difference(this, impl, i);
+            if(dif != 0) {
+                long bit = Long.lowestOneBit(dif);
+                if(((care[i] ^ impl.care[i]) & bit) != 0) {
+                    return (care[i] & bit) != 0 ? -1 : 1;
                 }
+                return (values[i] & bit) != 0 ? -1 : 1;
             }
         }
         return 0;
@@ -196,40 +203,31 @@ public class Implicant implements Comparable<Implicant>{
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Implicant implicant = (Implicant) o;
-        return weight == implicant.weight &&
-                Arrays.equals(literals, implicant.literals);
+        return variablesCount == implicant.variablesCount &&
+                Arrays.equals(care, implicant.care) &&
+                Arrays.equals(values, implicant.values);
     }
 
     @Override
     public int hashCode() {
-        int result = Objects.hash(weight);
-        result = 31 * result + Arrays.hashCode(literals);
+        int result = 1;
+        for (int i = 0; i < care.length; i++) {
+            long h = care[i] * 0x9E3779B97F4A7C15L + values[i];
+            result = 31 * result + (int) (h ^ (h >>> 32));
+        }
         return result;
     }
 
     // перемножение двух импликант
     public static Implicant mult(Implicant l, Implicant r) {
-        if(l.literals.length != r.literals.length) {
-            throw new RuntimeException("implicants of different lengths: " + l.literals.length + ", " + r.literals.length);
-        }
-        var res = new Implicant(l.literals.length);
-        for(int i = 0; i < l.literals.length; i++) {
-            if(l.literals[i] != null) {
-                if(r.literals[i] != null) {
-                    if(l.literals[i] == r.literals[i]) {
-                        res.set(i, l.literals[i]);
-                    }
-                    else {
-                        throw new RuntimeException("Cant mult!");
-                    }
-                }
-                else {
-                    res.set(i, l.literals[i]);
-                }
-            }
-            else if(r.literals[i] != null) {
-                res.set(i, r.literals[i]);
+        checkLengths(l, r);
+        var res = new Implicant(l.variablesCount);
+        for(int i = 0; i < l.care.length; i++) {
+            if(((l.values[i] ^ r.values[i]) & l.care[i] & r.care[i]) != 0) {
+                throw new RuntimeException("Cant mult!");
             }
+            res.care[i] = l.care[i] | r.care[i];
+            res.values[i] = l.values[i] | r.values[i];
         }
         return res;
     }
@@ -245,77 +243,106 @@ public class Implicant implements Comparable<Implicant>{
         return res;
     }
 
-    // перемножение всех ДНФ между собой
+    // перемножение всех ДНФ между собой с поглощением (X v XY = X)
+    // сомножители перемножаются в порядке возрастания размера, после каждого шага поглощенные слагаемые удаляются
     public static Set<Implicant> multAll(List<Set<Implicant>> implicants) {
         if(implicants.size() == 0) {
             return new HashSet<>();
         }
-        if(implicants.size() == 1) {
-            return implicants.get(0);
+        List<List<Implicant>> factors = new ArrayList<>(implicants.size());
+        for(var factor: implicants) {
+            factors.add(absorb(factor));
         }
-        var res = implicants.get(0);
-        for (int i = 1; i < implicants.size(); i++) {
-            res = mult(res, implicants.get(i));
+        factors.sort(Comparator.comparingInt(List::size));
+        var res = factors.get(0);
+        for (int i = 1; i < factors.size(); i++) {
+            res = multAbsorbing(res, factors.get(i));
         }
-        return res;
-    }
-
-    public Boolean get(int i) {
-        return literals[i];
+        return new HashSet<>(res);
     }
 
-    // генерация номеров наборов, на которых данная импликанта равна 1
-    public Set<Integer> generateOnes() {
-        var impl = new Implicant(variablesCount);
-        for (int i = 0; i < literals.length; i++) {
-            if(literals[i] == null) {
-                impl.literals[i] = false;
+    // шаг перемножения: если слагаемое уже содержит одно из слагаемых сомножителя, то оно поглощает все
+    // свои произведения и переносится без изменений
+    private static List<Implicant> multAbsorbing(List<Implicant> dnf, List<Implicant> factor) {
+        List<Implicant> res = new ArrayList<>();
+        for(var i: dnf) {
+            boolean absorbed = false;
+            for(var j: factor) {
+                if(j.covers(i)) {
+                    absorbed = true;
+                    break;
+                }
             }
-            else {
-                impl.literals[i] = literals[i];
+            if(absorbed) {
+                res.add(i);
+                continue;
+            }
+            for(var j: factor) {
+                res.add(mult(i, j));
             }
         }
-        Set<Implicant> implicants = new HashSet<>();
-        implicants.add(impl);
-        for (int i = 0; i < literals.length; i++) {
-            if(literals[i] == null) {
-                Set<Implicant> newImpls = new HashSet<>(implicants.size());
-                for(var oldImpl: implicants) {
-                    impl = new Implicant(oldImpl);
-                    impl.set(i, true);
-                    newImpls.add(impl);
+        return absorb(res);
+    }
+
+    // удаление из ДНФ повторов и слагаемых, поглощаемых другими слагаемыми
+    private static List<Implicant> absorb(Collection<Implicant> dnf) {
+        List<Implicant> sorted = new ArrayList<>(new HashSet<>(dnf));
+        sorted.sort(Comparator.comparingInt(Implicant::literalsCount));
+        List<Implicant> res = new ArrayList<>(sorted.size());
+        for(var impl: sorted) {
+            boolean absorbed = false;
+            for(var kept: res) {
+                if(kept.covers(impl)) {
+                    absorbed = true;
+                    break;
                 }
-                implicants.addAll(newImpls);
             }
-        }
-        Set<Integer> res = new HashSet<>(implicants.size());
-        for(var im: implicants) {
-            res.add(im.generateNumber());
+            if(!absorbed) {
+                res.add(impl);
+            }
         }
         return res;
     }
 
-    // получение номера импликанты
-    private int generateNumber() {
-        int n = 0, p = 1;
-        for (var literal : literals) {
-            if (literal == null) {
-                throw new RuntimeException("Cant convert to number: " + toString());
-            } else if (literal) {
-                n += p;
-            }
-            p = p << 1;
+    // примерный объем памяти, занимаемый импликантой в коллекции (объект, массивы масок и ссылка на него)
+    public static long estimateBytes(int variablesCount) {
+        return 24 + 2 * (16 + 8L * wordsCount(variablesCount)) + 32;
+    }
+
+    public Boolean get(int i) {
+        if(i >= variablesCount) {
+            throw new ArrayIndexOutOfBoundsException(i);
         }
-        return n;
+        long bit = 1L << i;
+        if((care[i >>> 6] & bit) == 0) {
+            return null;
+        }
+        return (values[i >>> 6] & bit) != 0;
+    }
+
+    // генерация номеров наборов, на которых данная импликанта равна 1
+    public Set<Integer> generateOnes() {
+        if(variablesCount > 31) {
+            throw new RuntimeException("Cant convert to numbers: too many variables " + variablesCount);
+        }
+        long base = care.length == 0 ? 0 : values[0];
+        long free = care.length == 0 ? 0 : ~care[0] & lastWordMask(variablesCount);
+        // начальная емкость ограничена наибольшей емкостью HashMap (2^30)
+        Set<Integer> res = new HashSet<>((int) Math.min(2L << Long.bitCount(free), 1 << 30));
+        // перебор всех подмножеств отсутствующих в импликанте переменных
+        long sub = 0;
+        do {
+            res.add((int) (base | sub));
+            sub = (sub - free) & free;
+        } while (sub != 0);
+        return res;
     }
 
     // подсчет числа литералов в импликанте
     public int literalsCount() {
         int n = 0;
-        for(var l: literals) {
-            if(l != null) {
-                n++;
-            }
+        for(long c: care) {
+            n += Long.bitCount(c);
         }
         return n;
     }
@@ -0,0 +1,15 @@
+package neilyich.bf.minimization;
+
+import lombok.Getter;
+
+// запоминание нарушенного ограничения (например, чтобы не сохранять в кэш результат, который может быть
+// не минимальным)
+@Getter
+public class LimitTracker implements MinimizationListener {
+    private volatile MinimizationLimits.Limit exceededLimit;
+
+    @Override
+    public void onLimitExceeded(MinimizationLimits.Limit limit, String phase) {
+        exceededLimit = limit;
+    }
+}
@@ -0,0 +1,89 @@
+package neilyich.bf.minimization;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+// ограничения минимизации: срок окончания, признак отмены и примерный бюджет памяти
+// алгоритмы проверяют ограничения сами (между стадиями, проходами, узлами поиска), поэтому
+// остановка происходит не мгновенно; при нарушении ограничения возвращается лучшее найденное покрытие
+// (корректное, но не обязательно минимальное), а слушатель получает событие onLimitExceeded
+// память оценивается по размеру основных структур алгоритма (числу импликант стадии, размеру таблицы
+// коэффициентов, числу узлов диаграмм и т.д.), а не по занятой памяти JVM
+// объект не изменяется, поэтому его можно использовать для нескольких запусков и потоков одновременно
+public class MinimizationLimits {
+    public static final MinimizationLimits NONE = new MinimizationLimits(false, 0, null, Long.MAX_VALUE);
+
+    // нарушенное ограничение
+    public enum Limit {
+        DEADLINE,
+        CANCELLED,
+        MEMORY
+    }
+
+    private final boolean hasDeadline;
+    // срок окончания в единицах System.nanoTime()
+    private final long deadline;
+    private final CancellationToken token;
+    @Getter
+    private final long memoryBudget;
+
+    private MinimizationLimits(boolean hasDeadline, long deadline, CancellationToken token, long memoryBudget) {
+        this.hasDeadline = hasDeadline;
+        this.deadline = deadline;
+        this.token = token;
+        this.memoryBudget = memoryBudget;
+    }
+
+    // ограничение с сроком окончания через timeout от текущего момента
+    public MinimizationLimits withTimeout(Duration timeout) {
+        return withDeadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    // ограничение с сроком окончания deadline (в единицах System.nanoTime())
+    public MinimizationLimits withDeadline(long deadline) {
+        return new MinimizationLimits(true, deadline, token, memoryBudget);
+    }
+
+    public MinimizationLimits withCancellation(CancellationToken token) {
+        return new MinimizationLimits(hasDeadline, deadline, token, memoryBudget);
+    }
+
+    // ограничения, которые также нарушаются при отмене token (уже заданный признак отмены продолжает действовать)
+    public MinimizationLimits withAdditionalCancellation(CancellationToken token) {
+        return withCancellation(this.token == null ? token : CancellationToken.anyOf(this.token, token));
+    }
+
+    // ограничение примерного объема памяти основных структур алгоритма (в байтах)
+    public MinimizationLimits withMemoryBudget(long bytes) {
+        if(bytes <= 0) {
+            throw new RuntimeException("memory budget must be positive: " + bytes);
+        }
+        return new MinimizationLimits(hasDeadline, deadline, token, bytes);
+    }
+
+    // true - если ни одно ограничение не задано
+    public boolean isUnlimited() {
+        return !hasDeadline && token == null && memoryBudget == Long.MAX_VALUE;
+    }
+
+    // проверка срока и отмены (null - ограничения не нарушены)
+    public Limit check() {
+        return check(0);
+    }
+
+    // проверка ограничений, estimatedBytes - оценка памяти, которую займут структуры алгоритма
+    // (null - ограничения не нарушены)
+    public Limit check(long estimatedBytes) {
+        if(token != null && token.isCancelled()) {
+            return Limit.CANCELLED;
+        }
+        if(hasDeadline && System.nanoTime() - deadline >= 0) {
+            return Limit.DEADLINE;
+        }
+        if(estimatedBytes > memoryBudget) {
+            return Limit.MEMORY;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,56 @@
+package neilyich.bf.minimization;
+
+import java.util.function.Supplier;
+
+// получатель событий минимизации, по умолчанию все события игнорируются
+// подробный ход работы (стадии склейки, таблицы покрытия, системы уравнений) передается в onTrace в виде
+// Supplier, поэтому текст строится только если слушатель его выводит (isTracing() == true); без такого слушателя
+// алгоритмы не хранят промежуточные данные, нужные только для вывода
+public interface MinimizationListener {
+    MinimizationListener NONE = new MinimizationListener() {
+    };
+
+    // true - если слушателю нужен подробный ход работы
+    default boolean isTracing() {
+        return false;
+    }
+
+    // начало минимизации функции
+    default void onStart(BooleanFunction f) {
+    }
+
+    // подробный ход работы: заголовок и текст (text вызывается, только если isTracing() == true)
+    default void onTrace(String title, Supplier<String> text) {
+    }
+
+    // окончание этапа алгоритма, nanos - время его выполнения
+    default void onPhase(String phase, long nanos) {
+    }
+
+    // стадия склейки алгоритма Квайна МакКласски: число импликант стадии, число полученных склейкой импликант
+    // и число новых простых импликант (не склеившихся ни с одной другой импликантой стадии; простые импликанты
+    // прошлых стадий входят в число импликант стадии, но не считаются снова)
+    default void onStage(int stage, int implicantsCount, int mergedCount, int primesCount) {
+    }
+
+    // размеры таблицы покрытия до и после сокращения до циклического ядра
+    default void onCoverageTable(int rowsBefore, int columnsBefore, int rowsAfter, int columnsAfter) {
+    }
+
+    // точный поиск покрытия циклического ядра таблицы: число рассмотренных узлов дерева поиска
+    default void onCoverSearch(long nodesCount) {
+    }
+
+    // система уравнений метода неопределенных коэффициентов: число уравнений и неизвестных коэффициентов
+    // после построения и после приравнивания к 1 коэффициентов из уравнений длины 1
+    default void onCoefsSystem(int lines, int coefs, int reducedLines, int reducedCoefs) {
+    }
+
+    // минимизация остановлена нарушением ограничения на этапе phase, результат может быть не минимальным
+    default void onLimitExceeded(MinimizationLimits.Limit limit, String phase) {
+    }
+
+    // окончание минимизации, result - минимизированная функция
+    default void onFinish(BooleanFunction result) {
+    }
+}
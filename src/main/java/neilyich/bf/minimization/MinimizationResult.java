@@ -0,0 +1,18 @@
+package neilyich.bf.minimization;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// результат минимизации вместе со статистикой запуска
+@Getter
+@RequiredArgsConstructor
+public class MinimizationResult {
+    private final BooleanFunction function;
+    private final MinimizationStats stats;
+
+    // false - минимизация остановлена ограничением, функция реализована корректно, но ДНФ может быть не минимальной
+    // (для эвристических алгоритмов true означает только то, что алгоритм выполнен полностью)
+    public boolean isOptimal() {
+        return stats.getExceededLimit() == null;
+    }
+}
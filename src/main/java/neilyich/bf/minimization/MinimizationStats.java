@@ -0,0 +1,129 @@
+package neilyich.bf.minimization;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.*;
+
+// статистика одного запуска минимизации, собирается из событий алгоритма
+// (значения, которые алгоритм не сообщает, остаются равными 0)
+@Getter
+public class MinimizationStats implements MinimizationListener {
+    // стадия склейки алгоритма Квайна МакКласски
+    @Getter
+    @RequiredArgsConstructor
+    public static class Stage {
+        private final int implicantsCount;
+        private final int mergedCount;
+        private final int primesCount;
+
+        @Override
+        public String toString() {
+            return implicantsCount + " implicants -> " + mergedCount + " merged, " + primesCount + " new primes";
+        }
+    }
+
+    private final List<Stage> stages = new ArrayList<>();
+    private int rowsBefore;
+    private int columnsBefore;
+    private int rowsAfter;
+    private int columnsAfter;
+    private long coverSearchNodes;
+    private int systemLines;
+    private int systemCoefs;
+    private int reducedSystemLines;
+    private int reducedSystemCoefs;
+    // время выполнения этапов в порядке их завершения
+    private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+    // нарушенное ограничение и этап, на котором минимизация была остановлена (null - ограничения не нарушены)
+    private MinimizationLimits.Limit exceededLimit;
+    private String exceededPhase;
+    private long totalNanos;
+    private long startTime;
+
+    @Override
+    public void onStart(BooleanFunction f) {
+        startTime = System.nanoTime();
+    }
+
+    @Override
+    public void onPhase(String phase, long nanos) {
+        phaseNanos.merge(phase, nanos, Long::sum);
+    }
+
+    @Override
+    public void onStage(int stage, int implicantsCount, int mergedCount, int primesCount) {
+        stages.add(new Stage(implicantsCount, mergedCount, primesCount));
+    }
+
+    @Override
+    public void onCoverageTable(int rowsBefore, int columnsBefore, int rowsAfter, int columnsAfter) {
+        this.rowsBefore = rowsBefore;
+        this.columnsBefore = columnsBefore;
+        this.rowsAfter = rowsAfter;
+        this.columnsAfter = columnsAfter;
+    }
+
+    @Override
+    public void onCoverSearch(long nodesCount) {
+        coverSearchNodes = nodesCount;
+    }
+
+    @Override
+    public void onCoefsSystem(int lines, int coefs, int reducedLines, int reducedCoefs) {
+        systemLines = lines;
+        systemCoefs = coefs;
+        reducedSystemLines = reducedLines;
+        reducedSystemCoefs = reducedCoefs;
+    }
+
+    @Override
+    public void onLimitExceeded(MinimizationLimits.Limit limit, String phase) {
+        exceededLimit = limit;
+        exceededPhase = phase;
+    }
+
+    @Override
+    public void onFinish(BooleanFunction result) {
+        totalNanos = System.nanoTime() - startTime;
+    }
+
+    // общее число простых импликант (по всем стадиям склейки)
+    public int getPrimesCount() {
+        int count = 0;
+        for(var stage: stages) {
+            count += stage.primesCount;
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        var builder = new StringBuilder();
+        for(int i = 0; i < stages.size(); i++) {
+            builder.append("stage ").append(i + 1).append(": ").append(stages.get(i)).append('\n');
+        }
+        if(rowsBefore > 0 || columnsBefore > 0) {
+            builder.append("coverage table: ").append(rowsBefore).append(" x ").append(columnsBefore)
+                    .append(" -> ").append(rowsAfter).append(" x ").append(columnsAfter).append('\n');
+        }
+        if(coverSearchNodes > 0) {
+            builder.append("cover search: ").append(coverSearchNodes).append(" nodes\n");
+        }
+        if(systemLines > 0) {
+            builder.append("coefs system: ").append(systemLines).append(" lines, ").append(systemCoefs).append(" coefs -> ")
+                    .append(reducedSystemLines).append(" lines, ").append(reducedSystemCoefs).append(" coefs\n");
+        }
+        for(var phase: phaseNanos.entrySet()) {
+            builder.append(phase.getKey()).append(": ").append(millis(phase.getValue())).append(" ms\n");
+        }
+        if(exceededLimit != null) {
+            builder.append("stopped by limit: ").append(exceededLimit).append(" in ").append(exceededPhase).append('\n');
+        }
+        return builder.append("total: ").append(millis(totalNanos)).append(" ms").toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+}
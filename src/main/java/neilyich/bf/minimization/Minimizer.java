@@ -1,5 +1,31 @@
 package neilyich.bf.minimization;
 
+import neilyich.bf.minimization.jfr.JfrListener;
+
 public interface Minimizer {
-    BooleanFunction minimize(BooleanFunction f);
+    // события минимизации передаются только в JFR (если он запущен)
+    default BooleanFunction minimize(BooleanFunction f) {
+        return minimize(f, JfrListener.of(getClass().getSimpleName()));
+    }
+
+    // минимизация со сбором статистики по этапам
+    default MinimizationResult minimizeWithStats(BooleanFunction f) {
+        return minimize(f, MinimizationLimits.NONE);
+    }
+
+    // минимизация с ограничениями: при нарушении ограничения исключение не выбрасывается, а возвращается
+    // лучшее найденное покрытие с признаком isOptimal() == false
+    default MinimizationResult minimize(BooleanFunction f, MinimizationLimits limits) {
+        var stats = new MinimizationStats();
+        var res = minimize(f, new CompositeListener(stats, JfrListener.of(getClass().getSimpleName())), limits);
+        return new MinimizationResult(res, stats);
+    }
+
+    // минимизация с передачей событий слушателю
+    default BooleanFunction minimize(BooleanFunction f, MinimizationListener listener) {
+        return minimize(f, listener, MinimizationLimits.NONE);
+    }
+
+    // минимизация с передачей событий слушателю и проверкой ограничений
+    BooleanFunction minimize(BooleanFunction f, MinimizationListener listener, MinimizationLimits limits);
 }
@@ -0,0 +1,31 @@
+package neilyich.bf.minimization;
+
+import java.io.PrintStream;
+import java.util.function.Supplier;
+
+// вывод подробного хода минимизации в текстовом виде (таблицы стадий, покрытия и системы уравнений)
+public class PrintingListener implements MinimizationListener {
+    private final PrintStream out;
+
+    public PrintingListener(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public boolean isTracing() {
+        return true;
+    }
+
+    @Override
+    public void onTrace(String title, Supplier<String> text) {
+        out.println(title);
+        var s = text.get();
+        if(s.isEmpty()) {
+            return;
+        }
+        out.print(s);
+        if(!s.endsWith("\n")) {
+            out.println();
+        }
+    }
+}
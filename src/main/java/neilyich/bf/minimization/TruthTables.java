@@ -0,0 +1,111 @@
+package neilyich.bf.minimization;
+
+// операции над упакованными векторами значений (бит i слова k - значение на наборе 64 * k + i)
+// набор слов, покрываемых импликантой, задается старшими переменными (начиная с 6-й),
+// а маска внутри каждого из этих слов - младшими шестью переменными
+public final class TruthTables {
+    // маски наборов, на которых i-я переменная (i < 6) равна 1, в пределах одного слова
+    private static final long[] VARIABLE_MASKS = {
+            0xAAAAAAAAAAAAAAAAL,
+            0xCCCCCCCCCCCCCCCCL,
+            0xF0F0F0F0F0F0F0F0L,
+            0xFF00FF00FF00FF00L,
+            0xFFFF0000FFFF0000L,
+            0xFFFFFFFF00000000L
+    };
+
+    private TruthTables() {
+    }
+
+    // число слов в векторе значений функции заданного числа переменных
+    public static int wordsCount(int variablesCount) {
+        return variablesCount <= 6 ? 1 : 1 << (variablesCount - 6);
+    }
+
+    // маска значащих битов в слове (для функций менее чем от 6 переменных занята только часть слова)
+    public static long wordMask(int variablesCount) {
+        return variablesCount >= 6 ? -1L : (1L << (1 << variablesCount)) - 1;
+    }
+
+    // маска наборов, на которых i-я переменная (i < 6) равна 1
+    public static long variableMask(int i) {
+        return VARIABLE_MASKS[i];
+    }
+
+    // установка в 1 всех наборов, покрываемых импликантой
+    public static void fill(long[] table, int variablesCount, Implicant impl) {
+        long pattern = pattern(variablesCount, impl);
+        long base = base(variablesCount, impl);
+        long free = free(table, variablesCount, impl);
+        long sub = 0;
+        do {
+            table[(int) (base | sub)] |= pattern;
+            sub = (sub - free) & free;
+        } while(sub != 0);
+    }
+
+    // установка в 0 всех наборов, покрываемых импликантой
+    public static void clear(long[] table, int variablesCount, Implicant impl) {
+        long pattern = pattern(variablesCount, impl);
+        long base = base(variablesCount, impl);
+        long free = free(table, variablesCount, impl);
+        long sub = 0;
+        do {
+            table[(int) (base | sub)] &= ~pattern;
+            sub = (sub - free) & free;
+        } while(sub != 0);
+    }
+
+    // число единичных наборов среди покрываемых импликантой
+    public static int count(long[] table, int variablesCount, Implicant impl) {
+        long pattern = pattern(variablesCount, impl);
+        long base = base(variablesCount, impl);
+        long free = free(table, variablesCount, impl);
+        int count = 0;
+        long sub = 0;
+        do {
+            count += Long.bitCount(table[(int) (base | sub)] & pattern);
+            sub = (sub - free) & free;
+        } while(sub != 0);
+        return count;
+    }
+
+    // true - если все наборы, покрываемые импликантой, единичные
+    public static boolean containsAll(long[] table, int variablesCount, Implicant impl) {
+        long pattern = pattern(variablesCount, impl);
+        long base = base(variablesCount, impl);
+        long free = free(table, variablesCount, impl);
+        long sub = 0;
+        do {
+            if((table[(int) (base | sub)] & pattern) != pattern) {
+                return false;
+            }
+            sub = (sub - free) & free;
+        } while(sub != 0);
+        return true;
+    }
+
+    // маска наборов импликанты внутри слова (определяется младшими шестью переменными)
+    private static long pattern(int variablesCount, Implicant impl) {
+        long care = variablesCount == 0 ? 0 : impl.careWord(0);
+        long values = variablesCount == 0 ? 0 : impl.valuesWord(0);
+        long pattern = wordMask(variablesCount);
+        for(int i = 0; i < Math.min(variablesCount, 6); i++) {
+            if((care & (1L << i)) != 0) {
+                pattern &= (values & (1L << i)) != 0 ? VARIABLE_MASKS[i] : ~VARIABLE_MASKS[i];
+            }
+        }
+        return pattern;
+    }
+
+    // номер первого слова импликанты (значения старших переменных)
+    private static long base(int variablesCount, Implicant impl) {
+        return variablesCount == 0 ? 0 : impl.valuesWord(0) >>> 6;
+    }
+
+    // старшие переменные, отсутствующие в импликанте (по их подмножествам перебираются слова)
+    private static long free(long[] table, int variablesCount, Implicant impl) {
+        long care = variablesCount == 0 ? 0 : impl.careWord(0);
+        return ~(care >>> 6) & (table.length - 1);
+    }
+}
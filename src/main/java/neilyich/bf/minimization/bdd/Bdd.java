@@ -0,0 +1,293 @@
+package neilyich.bf.minimization.bdd;
+
+import neilyich.bf.minimization.BooleanFunction;
+import neilyich.bf.minimization.Implicant;
+import neilyich.bf.minimization.MinimizationLimits;
+import neilyich.bf.minimization.TruthTables;
+
+import java.util.*;
+
+// менеджер упорядоченных сокращенных диаграмм двоичных решений (ROBDD)
+// FALSE и TRUE - терминальные узлы, узел с одинаковыми ветвями не создается. корень проверяет переменную
+// с наибольшим номером, которая делит вектор значений функции пополам
+public class Bdd extends DecisionDiagram {
+    public static final int FALSE = 0;
+    public static final int TRUE = 1;
+
+    private static final int AND = 1;
+    private static final int OR = 2;
+    private static final int XOR = 3;
+    private static final int NOT = 4;
+
+    // при построении по вектору значений ограничения проверяются через каждые 2^CHECK_VARIABLES наборов
+    private static final int CHECK_VARIABLES = 16;
+
+    // переменная xi
+    public int var(int i) {
+        gcIfNeeded();
+        return mk(i, FALSE, TRUE);
+    }
+
+    // отрицание переменной xi
+    public int nvar(int i) {
+        gcIfNeeded();
+        return mk(i, TRUE, FALSE);
+    }
+
+    public int and(int a, int b) {
+        gcIfNeeded();
+        return andRec(a, b);
+    }
+
+    public int or(int a, int b) {
+        gcIfNeeded();
+        return orRec(a, b);
+    }
+
+    public int xor(int a, int b) {
+        gcIfNeeded();
+        return xorRec(a, b);
+    }
+
+    public int not(int a) {
+        gcIfNeeded();
+        return notRec(a);
+    }
+
+    // конъюнкция литералов импликанты
+    public int cube(Implicant impl) {
+        gcIfNeeded();
+        return cubeRec(impl);
+    }
+
+    // дизъюнкция импликант (построение без вектора значений, поэтому подходит для любого числа переменных)
+    public int dnf(Collection<Implicant> implicants) {
+        gcIfNeeded();
+        int res = FALSE;
+        for(var impl: implicants) {
+            res = orRec(res, cubeRec(impl));
+        }
+        return res;
+    }
+
+    // диаграмма функции, заданной вектором значений
+    public int of(BooleanFunction f) {
+        return of(f, MinimizationLimits.NONE);
+    }
+
+    // построение диаграммы по вектору значений: половины вектора - функции при xi = 0 и xi = 1 для старшей
+    // переменной xi, части вектора из одного слова (до 6 переменных) разбираются внутри слова
+    // при нарушении ограничения возвращается -1
+    public int of(BooleanFunction f, MinimizationLimits limits) {
+        gcIfNeeded();
+        var table = f.toLongArray();
+        int variablesCount = f.getVariablesCount();
+        if(variablesCount <= 6) {
+            return ofWord(table[0], variablesCount);
+        }
+        // одинаковые слова вектора дают одинаковые узлы, поэтому последние узлы слов запоминаются
+        var words = new long[1 << 10];
+        var wordNodes = new int[1 << 10];
+        Arrays.fill(wordNodes, -1);
+        return ofTable(table, variablesCount, 0, limits, words, wordNodes);
+    }
+
+    private int ofTable(long[] table, int variablesCount, int word, MinimizationLimits limits,
+                        long[] words, int[] wordNodes) {
+        if(variablesCount == 6) {
+            long value = table[word];
+            int slot = (int) (value ^ (value >>> 29) ^ (value >>> 47)) & (words.length - 1);
+            if(wordNodes[slot] < 0 || words[slot] != value) {
+                words[slot] = value;
+                wordNodes[slot] = ofWord(value, 6);
+            }
+            return wordNodes[slot];
+        }
+        if(variablesCount == CHECK_VARIABLES && limits.check(bytes()) != null) {
+            return -1;
+        }
+        int half = 1 << (variablesCount - 7);
+        int low = ofTable(table, variablesCount - 1, word, limits, words, wordNodes);
+        if(low < 0) {
+            return -1;
+        }
+        int high = ofTable(table, variablesCount - 1, word + half, limits, words, wordNodes);
+        if(high < 0) {
+            return -1;
+        }
+        return mk(variablesCount - 1, low, high);
+    }
+
+    // диаграмма функции от variablesCount <= 6 переменных, заданной младшими битами слова
+    private int ofWord(long word, int variablesCount) {
+        long mask = TruthTables.wordMask(variablesCount);
+        word &= mask;
+        if(word == 0) {
+            return FALSE;
+        }
+        if(word == mask) {
+            return TRUE;
+        }
+        int half = 1 << (variablesCount - 1);
+        int low = ofWord(word, variablesCount - 1);
+        int high = ofWord(word >>> half, variablesCount - 1);
+        return mk(variablesCount - 1, low, high);
+    }
+
+    // функция от variablesCount переменных, заданная диаграммой
+    public BooleanFunction toFunction(int node, int variablesCount) {
+        var table = new long[TruthTables.wordsCount(variablesCount)];
+        for(var path: paths(node, variablesCount)) {
+            TruthTables.fill(table, variablesCount, path);
+        }
+        return new BooleanFunction(variablesCount, table);
+    }
+
+    // кубы путей от корня к терминалу TRUE - ДНФ из попарно непересекающихся слагаемых
+    public List<Implicant> paths(int node, int variablesCount) {
+        List<Implicant> paths = new ArrayList<>();
+        paths(node, new Implicant(variablesCount), paths);
+        return paths;
+    }
+
+    private void paths(int node, Implicant path, List<Implicant> paths) {
+        if(node == FALSE) {
+            return;
+        }
+        if(node == TRUE) {
+            paths.add(new Implicant(path));
+            return;
+        }
+        int v = getVar(node);
+        path.set(v, false);
+        paths(getLow(node), path, paths);
+        path.set(v, true);
+        paths(getHigh(node), path, paths);
+        path.set(v, null);
+    }
+
+    // узел, проверяющий переменную v (ветви low и high не должны зависеть от переменных с номерами >= v)
+    @Override
+    int mk(int v, int low, int high) {
+        if(low == high) {
+            return low;
+        }
+        return node(v, low, high);
+    }
+
+    // операции без сборки мусора (для рекурсивных алгоритмов пакета, которые держат промежуточные узлы на стеке)
+
+    int andRec(int a, int b) {
+        if(a == FALSE || b == FALSE) {
+            return FALSE;
+        }
+        if(a == TRUE || a == b) {
+            return b;
+        }
+        if(b == TRUE) {
+            return a;
+        }
+        if(a > b) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        int cached = cached(AND, a, b);
+        if(cached >= 0) {
+            return cached;
+        }
+        int v = Math.max(getVar(a), getVar(b));
+        int low = andRec(cofactor(a, v, false), cofactor(b, v, false));
+        int high = andRec(cofactor(a, v, true), cofactor(b, v, true));
+        return cache(AND, a, b, mk(v, low, high));
+    }
+
+    int orRec(int a, int b) {
+        if(a == TRUE || b == TRUE) {
+            return TRUE;
+        }
+        if(a == FALSE || a == b) {
+            return b;
+        }
+        if(b == FALSE) {
+            return a;
+        }
+        if(a > b) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        int cached = cached(OR, a, b);
+        if(cached >= 0) {
+            return cached;
+        }
+        int v = Math.max(getVar(a), getVar(b));
+        int low = orRec(cofactor(a, v, false), cofactor(b, v, false));
+        int high = orRec(cofactor(a, v, true), cofactor(b, v, true));
+        return cache(OR, a, b, mk(v, low, high));
+    }
+
+    int xorRec(int a, int b) {
+        if(a == b) {
+            return FALSE;
+        }
+        if(a == FALSE) {
+            return b;
+        }
+        if(b == FALSE) {
+            return a;
+        }
+        if(a == TRUE) {
+            return notRec(b);
+        }
+        if(b == TRUE) {
+            return notRec(a);
+        }
+        if(a > b) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        int cached = cached(XOR, a, b);
+        if(cached >= 0) {
+            return cached;
+        }
+        int v = Math.max(getVar(a), getVar(b));
+        int low = xorRec(cofactor(a, v, false), cofactor(b, v, false));
+        int high = xorRec(cofactor(a, v, true), cofactor(b, v, true));
+        return cache(XOR, a, b, mk(v, low, high));
+    }
+
+    int notRec(int a) {
+        if(a <= TRUE) {
+            return TRUE - a;
+        }
+        int cached = cached(NOT, a, 0);
+        if(cached >= 0) {
+            return cached;
+        }
+        int low = notRec(getLow(a));
+        int high = notRec(getHigh(a));
+        return cache(NOT, a, 0, mk(getVar(a), low, high));
+    }
+
+    // литералы добавляются от младшей переменной к старшей, поэтому каждый новый узел становится корнем
+    int cubeRec(Implicant impl) {
+        int res = TRUE;
+        for(int i = 0; i < impl.getVariablesCount(); i++) {
+            var value = impl.get(i);
+            if(value != null) {
+                res = value ? mk(i, FALSE, res) : mk(i, res, FALSE);
+            }
+        }
+        return res;
+    }
+
+    // ветвь узла при xv = value (если узел не проверяет xv, то от нее он не зависит)
+    int cofactor(int node, int v, boolean value) {
+        if(getVar(node) != v) {
+            return node;
+        }
+        return value ? getHigh(node) : getLow(node);
+    }
+}
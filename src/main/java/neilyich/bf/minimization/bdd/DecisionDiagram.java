@@ -0,0 +1,256 @@
+package neilyich.bf.minimization.bdd;
+
+import java.util.*;
+
+// общая часть менеджеров диаграмм решений (BDD и ZDD): хранение узлов, таблица уникальности, кэш вычислений
+// и сборка мусора. правило сокращения узлов задается наследником в mk
+// узел - номер в массивах vars/lows/highs, узлы 0 и 1 терминальные. номера переменных убывают от корня к листьям
+// одинаковые узлы не создаются повторно (таблица уникальности с цепочками), результаты операций запоминаются
+// в кэше вычислений с прямой адресацией (при коллизии запись заменяется)
+// сборка мусора освобождает узлы, недостижимые из узлов с ненулевым счетчиком ссылок, и выполняется только
+// в начале публичных операций: узлы, которые нужны после следующей операции, должны быть отмечены ref
+// менеджер не потокобезопасен
+public abstract class DecisionDiagram {
+    // номер переменной терминальных узлов и освобожденных узлов
+    static final int TERMINAL = -1;
+    private static final int FREE = -2;
+
+    private static final int INITIAL_CAPACITY = 1 << 12;
+    private static final int CACHE_SIZE = 1 << 16;
+
+    private int[] vars;
+    private int[] lows;
+    private int[] highs;
+    // следующий узел в цепочке таблицы уникальности или в списке свободных узлов
+    private int[] next;
+    private int[] refs;
+    // первые узлы цепочек таблицы уникальности (0 - пустая цепочка, терминальные узлы в таблицу не входят)
+    private int[] buckets;
+    private int freeList;
+    // число использованных элементов массивов узлов
+    private int size;
+    // число узлов в таблице уникальности
+    private int nodesCount;
+    // число узлов, при превышении которого в начале следующей публичной операции выполняется сборка мусора
+    private int gcThreshold = INITIAL_CAPACITY;
+
+    private final int[] cacheOps;
+    private final int[] cacheA;
+    private final int[] cacheB;
+    private final int[] cacheResults;
+
+    DecisionDiagram() {
+        vars = new int[INITIAL_CAPACITY];
+        lows = new int[INITIAL_CAPACITY];
+        highs = new int[INITIAL_CAPACITY];
+        next = new int[INITIAL_CAPACITY];
+        refs = new int[INITIAL_CAPACITY];
+        buckets = new int[INITIAL_CAPACITY];
+        vars[0] = TERMINAL;
+        vars[1] = TERMINAL;
+        size = 2;
+        cacheOps = new int[CACHE_SIZE];
+        cacheA = new int[CACHE_SIZE];
+        cacheB = new int[CACHE_SIZE];
+        cacheResults = new int[CACHE_SIZE];
+    }
+
+    // узел с сокращением по правилу диаграммы
+    abstract int mk(int v, int low, int high);
+
+    // номер переменной, проверяемой в узле (-1 для терминальных узлов)
+    public int getVar(int node) {
+        return vars[node];
+    }
+
+    public int getLow(int node) {
+        return lows[node];
+    }
+
+    public int getHigh(int node) {
+        return highs[node];
+    }
+
+    // число узлов диаграммы (включая терминальные)
+    public int size(int node) {
+        var visited = new BitSet();
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(node);
+        int count = 0;
+        while(!stack.isEmpty()) {
+            int n = stack.pop();
+            if(visited.get(n)) {
+                continue;
+            }
+            visited.set(n);
+            count++;
+            if(n > 1) {
+                stack.push(lows[n]);
+                stack.push(highs[n]);
+            }
+        }
+        return count;
+    }
+
+    // увеличение счетчика ссылок: узел и все достижимые из него узлы не удаляются сборкой мусора
+    public int ref(int node) {
+        if(node > 1) {
+            refs[node]++;
+        }
+        return node;
+    }
+
+    public void deref(int node) {
+        if(node > 1) {
+            if(refs[node] == 0) {
+                throw new RuntimeException("node " + node + " is not referenced");
+            }
+            refs[node]--;
+        }
+    }
+
+    // число узлов в таблице уникальности (включая недостижимые до следующей сборки мусора)
+    public int getNodesCount() {
+        return nodesCount;
+    }
+
+    // примерный объем памяти менеджера
+    public long bytes() {
+        return 20L * vars.length + 4L * buckets.length + 16L * CACHE_SIZE;
+    }
+
+    // сборка мусора
+    public void gc() {
+        var marked = new boolean[size];
+        marked[0] = true;
+        marked[1] = true;
+        var stack = new int[64];
+        for(int n = 2; n < size; n++) {
+            if(vars[n] == FREE || refs[n] == 0 || marked[n]) {
+                continue;
+            }
+            int top = 0;
+            stack[top++] = n;
+            while(top > 0) {
+                int m = stack[--top];
+                if(marked[m]) {
+                    continue;
+                }
+                marked[m] = true;
+                if(top + 2 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                stack[top++] = lows[m];
+                stack[top++] = highs[m];
+            }
+        }
+        Arrays.fill(buckets, 0);
+        freeList = 0;
+        nodesCount = 0;
+        for(int n = size - 1; n > 1; n--) {
+            if(vars[n] != FREE && !marked[n]) {
+                vars[n] = FREE;
+            }
+            if(vars[n] == FREE) {
+                next[n] = freeList;
+                freeList = n;
+            }
+            else {
+                insert(n);
+            }
+        }
+        Arrays.fill(cacheOps, 0);
+    }
+
+    void gcIfNeeded() {
+        if(nodesCount < gcThreshold) {
+            return;
+        }
+        gc();
+        // если освобождено мало узлов, следующая сборка откладывается до удвоения их числа
+        gcThreshold = Math.max(gcThreshold, 2 * nodesCount);
+    }
+
+    // поиск узла в таблице уникальности или создание нового узла (без сокращения)
+    int node(int v, int low, int high) {
+        for(int n = buckets[hash(v, low, high) & (buckets.length - 1)]; n != 0; n = next[n]) {
+            if(vars[n] == v && lows[n] == low && highs[n] == high) {
+                return n;
+            }
+        }
+        int n;
+        if(freeList != 0) {
+            n = freeList;
+            freeList = next[n];
+        }
+        else {
+            if(size == vars.length) {
+                grow();
+            }
+            n = size++;
+        }
+        vars[n] = v;
+        lows[n] = low;
+        highs[n] = high;
+        refs[n] = 0;
+        insert(n);
+        if(nodesCount > buckets.length) {
+            rehash();
+        }
+        return n;
+    }
+
+    private void insert(int n) {
+        int bucket = hash(vars[n], lows[n], highs[n]) & (buckets.length - 1);
+        next[n] = buckets[bucket];
+        buckets[bucket] = n;
+        nodesCount++;
+    }
+
+    private void grow() {
+        int capacity = vars.length * 2;
+        vars = Arrays.copyOf(vars, capacity);
+        lows = Arrays.copyOf(lows, capacity);
+        highs = Arrays.copyOf(highs, capacity);
+        next = Arrays.copyOf(next, capacity);
+        refs = Arrays.copyOf(refs, capacity);
+    }
+
+    private void rehash() {
+        buckets = new int[buckets.length * 2];
+        nodesCount = 0;
+        for(int n = 2; n < size; n++) {
+            if(vars[n] != FREE) {
+                insert(n);
+            }
+        }
+    }
+
+    private static int hash(int v, int low, int high) {
+        int h = v * 0x9E3779B1 + low * 0x85EBCA6B + high * 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+
+    // результат операции op (op > 0) над a и b из кэша вычислений (-1 - результата нет)
+    int cached(int op, int a, int b) {
+        int slot = cacheSlot(op, a, b);
+        if(cacheOps[slot] == op && cacheA[slot] == a && cacheB[slot] == b) {
+            return cacheResults[slot];
+        }
+        return -1;
+    }
+
+    int cache(int op, int a, int b, int result) {
+        int slot = cacheSlot(op, a, b);
+        cacheOps[slot] = op;
+        cacheA[slot] = a;
+        cacheB[slot] = b;
+        cacheResults[slot] = result;
+        return result;
+    }
+
+    private static int cacheSlot(int op, int a, int b) {
+        int h = op * 0x27D4EB2F + a * 0x9E3779B1 + b * 0x85EBCA6B;
+        return (h ^ (h >>> 15)) & (CACHE_SIZE - 1);
+    }
+}
@@ -0,0 +1,140 @@
+package neilyich.bf.minimization.bdd;
+
+import neilyich.bf.minimization.BooleanFunction;
+import neilyich.bf.minimization.Implicant;
+import neilyich.bf.minimization.MinimizationLimits;
+import neilyich.bf.minimization.MinimizationListener;
+import neilyich.bf.minimization.Minimizer;
+
+import java.util.*;
+
+// минимизация построением неизбыточной ДНФ (ISOP) по диаграмме двоичных решений алгоритмом Минато - Морреале
+// функция переводится в BDD, после чего работа пропорциональна размеру диаграмм, а не числу наборов: для функций
+// с компактной BDD (симметричных, арифметических и т.д.) это позволяет минимизировать функции большого числа
+// переменных. результат неизбыточен (ни одно слагаемое и ни один литерал нельзя удалить), но минимальность
+// не гарантируется
+// при нарушении ограничений возвращается ДНФ из путей диаграммы (или СДНФ, если диаграмма еще не построена)
+public class IsopMinimizer implements Minimizer {
+    // ограничения проверяются через каждые CHECK_INTERVAL_MASK + 1 рекурсивных вызовов
+    private static final int CHECK_INTERVAL_MASK = 63;
+
+    // получение минимизированной БФ
+    public BooleanFunction minimize(BooleanFunction f, MinimizationListener listener, MinimizationLimits limits) {
+        listener.onStart(f);
+        int variablesCount = f.getVariablesCount();
+        long start = System.nanoTime();
+        var bdd = new Bdd();
+        int root = bdd.of(f, limits);
+        listener.onPhase("bdd", System.nanoTime() - start);
+        BooleanFunction res;
+        if(root < 0) {
+            listener.onLimitExceeded(limits.check(bdd.bytes()), "bdd");
+            res = BooleanFunction.of(variablesCount, f.sdnf());
+        }
+        else {
+            if(listener.isTracing()) {
+                listener.onTrace("BDD of " + bdd.size(root) + " nodes", () -> "");
+            }
+            start = System.nanoTime();
+            var isop = new Isop(bdd, variablesCount, limits);
+            var cover = isop.run(root);
+            listener.onPhase("isop", System.nanoTime() - start);
+            if(isop.exceeded != null) {
+                listener.onLimitExceeded(isop.exceeded, "isop");
+                cover = bdd.paths(root, variablesCount);
+            }
+            res = BooleanFunction.of(variablesCount, cover);
+        }
+        listener.onFinish(res);
+        return res;
+    }
+
+    // неизбыточная ДНФ функции от variablesCount переменных, заданной диаграммой (вектор значений не строится)
+    public static List<Implicant> isop(Bdd bdd, int node, int variablesCount) {
+        return new Isop(bdd, variablesCount, MinimizationLimits.NONE).run(node);
+    }
+
+    // результат для пары (нижняя граница, верхняя граница): диаграмма покрытия и его слагаемые
+    // (слагаемые содержат только переменные с номерами меньше проверяемой в корне границ, поэтому результат
+    // подзадачи можно использовать повторно)
+    private static class Cover {
+        private final int node;
+        private final List<Implicant> cubes;
+
+        Cover(int node, List<Implicant> cubes) {
+            this.node = node;
+            this.cubes = cubes;
+        }
+    }
+
+    // рекурсивное построение покрытия C, lower <= C <= upper: для старшей переменной x слагаемые с !x покрывают
+    // наборы lower при x = 0, не входящие в upper при x = 1, слагаемые с x - симметрично, а оставшиеся наборы
+    // покрываются слагаемыми без x, которые должны входить в upper при обоих значениях x
+    private static class Isop {
+        private final Bdd bdd;
+        private final int variablesCount;
+        private final MinimizationLimits limits;
+        private final Map<Long, Cover> computed = new HashMap<>();
+        private final Cover empty = new Cover(Bdd.FALSE, List.of());
+        private final Cover one;
+        private long callsCount;
+        private MinimizationLimits.Limit exceeded;
+
+        Isop(Bdd bdd, int variablesCount, MinimizationLimits limits) {
+            this.bdd = bdd;
+            this.variablesCount = variablesCount;
+            this.limits = limits;
+            one = new Cover(Bdd.TRUE, List.of(new Implicant(variablesCount)));
+        }
+
+        List<Implicant> run(int node) {
+            return new ArrayList<>(isop(node, node).cubes);
+        }
+
+        private Cover isop(int lower, int upper) {
+            if(lower == Bdd.FALSE) {
+                return empty;
+            }
+            if(upper == Bdd.TRUE) {
+                return one;
+            }
+            if((callsCount++ & CHECK_INTERVAL_MASK) == 0 && exceeded == null) {
+                exceeded = limits.check(bdd.bytes());
+            }
+            if(exceeded != null) {
+                return empty;
+            }
+            long key = ((long) lower << 32) | upper;
+            var cached = computed.get(key);
+            if(cached != null) {
+                return cached;
+            }
+            int v = Math.max(bdd.getVar(lower), bdd.getVar(upper));
+            int lower0 = bdd.cofactor(lower, v, false);
+            int lower1 = bdd.cofactor(lower, v, true);
+            int upper0 = bdd.cofactor(upper, v, false);
+            int upper1 = bdd.cofactor(upper, v, true);
+            var cover0 = isop(bdd.andRec(lower0, bdd.notRec(upper1)), upper0);
+            var cover1 = isop(bdd.andRec(lower1, bdd.notRec(upper0)), upper1);
+            int rest = bdd.orRec(bdd.andRec(lower0, bdd.notRec(cover0.node)),
+                    bdd.andRec(lower1, bdd.notRec(cover1.node)));
+            var coverBoth = isop(rest, bdd.andRec(upper0, upper1));
+            int node = bdd.orRec(bdd.mk(v, cover0.node, cover1.node), coverBoth.node);
+            List<Implicant> cubes = new ArrayList<>(cover0.cubes.size() + cover1.cubes.size() + coverBoth.cubes.size());
+            addWithLiteral(cover0.cubes, v, false, cubes);
+            addWithLiteral(cover1.cubes, v, true, cubes);
+            cubes.addAll(coverBoth.cubes);
+            var res = new Cover(node, cubes);
+            computed.put(key, res);
+            return res;
+        }
+
+        private static void addWithLiteral(List<Implicant> cubes, int v, boolean value, List<Implicant> res) {
+            for(var cube: cubes) {
+                var withLiteral = new Implicant(cube);
+                withLiteral.set(v, value);
+                res.add(withLiteral);
+            }
+        }
+    }
+}
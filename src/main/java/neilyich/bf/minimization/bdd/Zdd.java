@@ -0,0 +1,263 @@
+package neilyich.bf.minimization.bdd;
+
+import neilyich.bf.minimization.Implicant;
+import neilyich.bf.minimization.MinimizationLimits;
+
+import java.util.*;
+
+// менеджер диаграмм решений с подавлением нулей (ZDD) для неявного хранения множеств кубов
+// куб - множество литералов: литералу !xi соответствует переменная диаграммы 2i, литералу xi - 2i + 1
+// (корень проверяет литерал старшей переменной, как и в Bdd). EMPTY - пустое множество кубов, BASE - множество
+// из одного пустого куба (тождественная единица); узел, ветвь high которого пуста, не создается
+// множество из сотен тысяч кубов с общими частями обычно занимает на порядки меньше узлов, чем объекты кубов
+public class Zdd extends DecisionDiagram {
+    public static final int EMPTY = 0;
+    public static final int BASE = 1;
+
+    private static final int UNION = 1;
+    private static final int DIFF = 2;
+    // при построении простых импликант ограничения проверяются через каждые CHECK_INTERVAL_MASK + 1 вызовов
+    private static final int CHECK_INTERVAL_MASK = 63;
+
+    public int union(int a, int b) {
+        gcIfNeeded();
+        return unionRec(a, b);
+    }
+
+    // кубы a, не входящие в b
+    public int diff(int a, int b) {
+        gcIfNeeded();
+        return diffRec(a, b);
+    }
+
+    // множество из одного куба
+    public int cube(Implicant impl) {
+        gcIfNeeded();
+        int res = BASE;
+        for(int i = 0; i < impl.getVariablesCount(); i++) {
+            var value = impl.get(i);
+            if(value != null) {
+                res = mk(literal(i, value), EMPTY, res);
+            }
+        }
+        return res;
+    }
+
+    // множество всех простых импликант функции, заданной диаграммой bdd (метод Кудера - Мадра): простые
+    // импликанты f без литералов x - простые импликанты f0 & f1, а простые импликанты с литералом !x (x) - простые
+    // импликанты f0 (f1), которые не являются простыми импликантами f0 & f1
+    public int primes(Bdd bdd, int f) {
+        return primes(bdd, f, MinimizationLimits.NONE);
+    }
+
+    // при нарушении ограничения возвращается -1
+    public int primes(Bdd bdd, int f, MinimizationLimits limits) {
+        gcIfNeeded();
+        var generator = new PrimesGenerator(bdd, limits);
+        int res = generator.primes(f);
+        return generator.exceeded == null ? res : -1;
+    }
+
+    // число кубов множества
+    public long count(int node) {
+        return count(node, new HashMap<>());
+    }
+
+    private long count(int node, Map<Integer, Long> counts) {
+        if(node <= BASE) {
+            return node;
+        }
+        var cached = counts.get(node);
+        if(cached != null) {
+            return cached;
+        }
+        long res = count(getLow(node), counts) + count(getHigh(node), counts);
+        counts.put(node, res);
+        return res;
+    }
+
+    // кубы множества в виде импликант от variablesCount переменных: импликанты создаются по одной при обходе
+    // диаграммы, поэтому множество целиком в памяти не разворачивается (между операциями менеджера сборка
+    // мусора не выполняется, но узел node должен быть отмечен ref, если обход чередуется с другими операциями)
+    public Iterable<Implicant> cubes(int node, int variablesCount) {
+        return () -> new CubeIterator(node, variablesCount);
+    }
+
+    @Override
+    int mk(int v, int low, int high) {
+        if(high == EMPTY) {
+            return low;
+        }
+        return node(v, low, high);
+    }
+
+    private static int literal(int variable, boolean value) {
+        return 2 * variable + (value ? 1 : 0);
+    }
+
+    int unionRec(int a, int b) {
+        if(a == EMPTY || a == b) {
+            return b;
+        }
+        if(b == EMPTY) {
+            return a;
+        }
+        if(a > b) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        int cached = cached(UNION, a, b);
+        if(cached >= 0) {
+            return cached;
+        }
+        int va = getVar(a);
+        int vb = getVar(b);
+        int res;
+        if(va > vb) {
+            res = mk(va, unionRec(getLow(a), b), getHigh(a));
+        }
+        else if(va < vb) {
+            res = mk(vb, unionRec(a, getLow(b)), getHigh(b));
+        }
+        else {
+            int low = unionRec(getLow(a), getLow(b));
+            res = mk(va, low, unionRec(getHigh(a), getHigh(b)));
+        }
+        return cache(UNION, a, b, res);
+    }
+
+    int diffRec(int a, int b) {
+        if(a == EMPTY || a == b) {
+            return EMPTY;
+        }
+        if(b == EMPTY) {
+            return a;
+        }
+        int cached = cached(DIFF, a, b);
+        if(cached >= 0) {
+            return cached;
+        }
+        int va = getVar(a);
+        int vb = getVar(b);
+        int res;
+        if(va > vb) {
+            res = mk(va, diffRec(getLow(a), b), getHigh(a));
+        }
+        else if(va < vb) {
+            res = diffRec(a, getLow(b));
+        }
+        else {
+            int low = diffRec(getLow(a), getLow(b));
+            res = mk(va, low, diffRec(getHigh(a), getHigh(b)));
+        }
+        return cache(DIFF, a, b, res);
+    }
+
+    // рекурсивное построение простых импликант по узлам BDD (результаты запоминаются для каждого узла BDD
+    // без вытеснения, иначе повторные вычисления для общих подграфов растут экспоненциально)
+    private class PrimesGenerator {
+        private final Bdd bdd;
+        private final MinimizationLimits limits;
+        private final Map<Integer, Integer> computed = new HashMap<>();
+        private long callsCount;
+        private MinimizationLimits.Limit exceeded;
+
+        PrimesGenerator(Bdd bdd, MinimizationLimits limits) {
+            this.bdd = bdd;
+            this.limits = limits;
+        }
+
+        int primes(int f) {
+            if(f == Bdd.FALSE) {
+                return EMPTY;
+            }
+            if(f == Bdd.TRUE) {
+                return BASE;
+            }
+            if((callsCount++ & CHECK_INTERVAL_MASK) == 0 && exceeded == null) {
+                exceeded = limits.check(bytes() + bdd.bytes());
+            }
+            if(exceeded != null) {
+                return EMPTY;
+            }
+            var cached = computed.get(f);
+            if(cached != null) {
+                return cached;
+            }
+            int v = bdd.getVar(f);
+            int low = bdd.getLow(f);
+            int high = bdd.getHigh(f);
+            int both = primes(bdd.andRec(low, high));
+            int negative = diffRec(primes(low), both);
+            int positive = diffRec(primes(high), both);
+            // кубы both, negative и positive содержат только литералы переменных с номерами меньше v
+            int res = mk(literal(v, true), mk(literal(v, false), both, negative), positive);
+            computed.put(f, res);
+            return res;
+        }
+    }
+
+    // обход путей от корня к терминалу BASE с явным стеком (ветвь low раньше ветви high)
+    private class CubeIterator implements Iterator<Implicant> {
+        private final Implicant cube;
+        // узлы, в которых осталось пройти по ветви high, и глубина cube в этот момент
+        private final Deque<Integer> pending = new ArrayDeque<>();
+        // литералы текущего куба в порядке добавления
+        private final Deque<Integer> literals = new ArrayDeque<>();
+        private int node;
+
+        CubeIterator(int root, int variablesCount) {
+            cube = new Implicant(variablesCount);
+            node = root;
+            descend();
+        }
+
+        // спуск по ветвям low до терминала; если терминал пустой, то переход к следующей ветви high
+        private void descend() {
+            while(true) {
+                while(node > BASE) {
+                    pending.push(node);
+                    pending.push(literals.size());
+                    node = getLow(node);
+                }
+                if(node == BASE || pending.isEmpty()) {
+                    return;
+                }
+                nextBranch();
+            }
+        }
+
+        // переход по ветви high последнего узла, в котором она еще не пройдена
+        private void nextBranch() {
+            int depth = pending.pop();
+            int from = pending.pop();
+            while(literals.size() > depth) {
+                cube.set(literals.pop() >> 1, null);
+            }
+            int literal = getVar(from);
+            cube.set(literal >> 1, (literal & 1) == 1);
+            literals.push(literal);
+            node = getHigh(from);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return node == BASE;
+        }
+
+        @Override
+        public Implicant next() {
+            if(node != BASE) {
+                throw new NoSuchElementException();
+            }
+            var res = new Implicant(cube);
+            node = EMPTY;
+            if(!pending.isEmpty()) {
+                nextBranch();
+                descend();
+            }
+            return res;
+        }
+    }
+}
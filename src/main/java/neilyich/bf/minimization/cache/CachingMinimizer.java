@@ -0,0 +1,63 @@
+package neilyich.bf.minimization.cache;
+
+import lombok.Getter;
+import neilyich.bf.minimization.BooleanFunction;
+import neilyich.bf.minimization.CompositeListener;
+import neilyich.bf.minimization.Implicant;
+import neilyich.bf.minimization.LimitTracker;
+import neilyich.bf.minimization.MinimizationLimits;
+import neilyich.bf.minimization.MinimizationListener;
+import neilyich.bf.minimization.Minimizer;
+
+import java.util.*;
+
+// минимизация с кэшированием результатов: функция приводится к NPN-канонической форме, ДНФ канонической
+// формы ищется в кэше и переводится обратно в переменные функции (перестановка и отрицания входов переводят
+// литералы в литералы, поэтому число слагаемых и литералов сохраняется)
+// при промахе функция минимизируется исходным алгоритмом, а результат сохраняется в кэш в канонических переменных
+public class CachingMinimizer implements Minimizer {
+    private final Minimizer minimizer;
+    @Getter
+    private final NpnCache cache;
+
+    public CachingMinimizer(Minimizer minimizer, int capacity) {
+        this(minimizer, new NpnCache(capacity));
+    }
+
+    // кэш может быть общим для нескольких экземпляров (например, для разных потоков пакетного режима)
+    public CachingMinimizer(Minimizer minimizer, NpnCache cache) {
+        this.minimizer = minimizer;
+        this.cache = cache;
+    }
+
+    // получение минимизированной БФ
+    // (результат, полученный при нарушении ограничения, в кэш не сохраняется)
+    public BooleanFunction minimize(BooleanFunction f, MinimizationListener listener, MinimizationLimits limits) {
+        var transform = NpnTransform.of(f);
+        int variablesCount = f.getVariablesCount();
+        var table = transform.getTable();
+        var cached = cache.get(variablesCount, table, transform.isOutputNegated());
+        if(cached != null) {
+            List<Implicant> implicants = new ArrayList<>(cached.size());
+            for(var impl: cached) {
+                implicants.add(transform.fromCanonical(impl));
+            }
+            // алгоритм не запускается, поэтому слушатель получает только начало и результат
+            listener.onStart(f);
+            var res = BooleanFunction.of(variablesCount, implicants);
+            listener.onFinish(res);
+            return res;
+        }
+        var tracker = new LimitTracker();
+        var min = minimizer.minimize(f, new CompositeListener(listener, tracker), limits);
+        if(tracker.getExceededLimit() != null) {
+            return min;
+        }
+        List<Implicant> canonical = new ArrayList<>(min.sdnf().size());
+        for(var impl: min.sdnf()) {
+            canonical.add(transform.toCanonical(impl));
+        }
+        cache.put(variablesCount, table, transform.isOutputNegated(), canonical);
+        return min;
+    }
+}
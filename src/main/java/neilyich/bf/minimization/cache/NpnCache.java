@@ -0,0 +1,92 @@
+package neilyich.bf.minimization.cache;
+
+import neilyich.bf.minimization.Implicant;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// ограниченный по размеру LRU-кэш минимизированных ДНФ канонических форм (может разделяться несколькими потоками)
+// для каждой канонической таблицы хранятся две ДНФ: самой таблицы и ее отрицания
+// (минимальная ДНФ отрицания функции не получается из ДНФ функции, поэтому они кэшируются отдельно)
+public class NpnCache {
+    private final Map<Key, CachedDnfs> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public NpnCache(int capacity) {
+        if(capacity <= 0) {
+            throw new RuntimeException("cache capacity must be positive: " + capacity);
+        }
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedDnfs> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    // ДНФ канонической формы (negated == true - ее отрицания), null - если ее нет в кэше
+    List<Implicant> get(int variablesCount, long[] table, boolean negated) {
+        List<Implicant> dnf;
+        synchronized(entries) {
+            var entry = entries.get(new Key(variablesCount, table));
+            dnf = entry == null ? null : negated ? entry.negated : entry.positive;
+        }
+        (dnf == null ? misses : hits).incrementAndGet();
+        return dnf;
+    }
+
+    void put(int variablesCount, long[] table, boolean negated, List<Implicant> dnf) {
+        synchronized(entries) {
+            var entry = entries.computeIfAbsent(new Key(variablesCount, table), k -> new CachedDnfs());
+            if(negated) {
+                entry.negated = dnf;
+            }
+            else {
+                entry.positive = dnf;
+            }
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public int size() {
+        synchronized(entries) {
+            return entries.size();
+        }
+    }
+
+    private static class CachedDnfs {
+        private List<Implicant> positive;
+        private List<Implicant> negated;
+    }
+
+    private static class Key {
+        private final int variablesCount;
+        private final long[] table;
+
+        Key(int variablesCount, long[] table) {
+            this.variablesCount = variablesCount;
+            this.table = table;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return variablesCount == key.variablesCount && Arrays.equals(table, key.table);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * variablesCount + Arrays.hashCode(table);
+        }
+    }
+}
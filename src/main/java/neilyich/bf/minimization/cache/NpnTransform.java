@@ -0,0 +1,273 @@
+package neilyich.bf.minimization.cache;
+
+import lombok.Getter;
+import neilyich.bf.minimization.BooleanFunction;
+import neilyich.bf.minimization.Implicant;
+import neilyich.bf.minimization.TruthTables;
+
+import java.util.*;
+
+// NPN-преобразование функции к канонической форме: перестановка и отрицание входов и отрицание выхода
+// преобразование задается как g(y) = f(x), где x[j] = y[perm[j]] ^ neg[j]; каноническая форма -
+// таблица g или ее отрицание (что меньше), outputNegated - true, если канонической формой является отрицание g
+// для функций не более чем от 6 переменных перебираются все 2^(n + 1) * n! преобразований и выбирается
+// наименьшая таблица (как беззнаковое число, старший набор - старший бит), для большего числа переменных
+// используется детерминированная эвристика по весам кофакторов, поэтому часть NPN-эквивалентных функций
+// получает разные ключи
+public class NpnTransform {
+    public static final int EXACT_VARIABLES_COUNT = 6;
+
+    @Getter
+    private final int variablesCount;
+    private final int[] perm;
+    private final boolean[] neg;
+    @Getter
+    private final boolean outputNegated;
+    // таблица канонической формы
+    private final long[] table;
+
+    private NpnTransform(int variablesCount, int[] perm, boolean[] neg, boolean outputNegated, long[] table) {
+        this.variablesCount = variablesCount;
+        this.perm = perm;
+        this.neg = neg;
+        this.outputNegated = outputNegated;
+        this.table = table;
+    }
+
+    // поиск преобразования функции к канонической форме
+    public static NpnTransform of(BooleanFunction f) {
+        if(f.getVariablesCount() <= EXACT_VARIABLES_COUNT) {
+            return exact(f);
+        }
+        return heuristic(f);
+    }
+
+    // копия таблицы канонической формы
+    public long[] getTable() {
+        return table.clone();
+    }
+
+    // перевод импликанты функции f в импликанту функции g
+    public Implicant toCanonical(Implicant impl) {
+        long care = 0;
+        long values = 0;
+        for(int j = 0; j < variablesCount; j++) {
+            var v = impl.get(j);
+            if(v != null) {
+                care |= 1L << perm[j];
+                if(v ^ neg[j]) {
+                    values |= 1L << perm[j];
+                }
+            }
+        }
+        return new Implicant(variablesCount, care, values);
+    }
+
+    // перевод импликанты функции g в импликанту функции f
+    public Implicant fromCanonical(Implicant impl) {
+        long care = 0;
+        long values = 0;
+        for(int j = 0; j < variablesCount; j++) {
+            var v = impl.get(perm[j]);
+            if(v != null) {
+                care |= 1L << j;
+                if(v ^ neg[j]) {
+                    values |= 1L << j;
+                }
+            }
+        }
+        return new Implicant(variablesCount, care, values);
+    }
+
+    // таблица функции g (без отрицания выхода)
+    private static long[] apply(BooleanFunction f, int[] perm, boolean[] neg) {
+        int n = f.getVariablesCount();
+        var res = new long[TruthTables.wordsCount(n)];
+        for(int x: f.getOnes()) {
+            int y = 0;
+            for(int j = 0; j < n; j++) {
+                if((((x >>> j) & 1) != 0) ^ neg[j]) {
+                    y |= 1 << perm[j];
+                }
+            }
+            res[y >>> 6] |= 1L << y;
+        }
+        return res;
+    }
+
+    // true - если таблица a меньше таблицы b (сравнение начинается со старших наборов)
+    private static boolean less(long[] a, long[] b) {
+        for(int i = a.length - 1; i >= 0; i--) {
+            if(a[i] != b[i]) {
+                return Long.compareUnsigned(a[i], b[i]) < 0;
+            }
+        }
+        return false;
+    }
+
+    private static long[] not(long[] table, int variablesCount) {
+        var res = new long[table.length];
+        for(int i = 0; i < table.length; i++) {
+            res[i] = ~table[i];
+        }
+        res[res.length - 1] &= TruthTables.wordMask(variablesCount);
+        return res;
+    }
+
+    // эвристика: выход инвертируется, если единиц больше половины; вход инвертируется, если единиц функции
+    // на наборах, где он равен 1, больше, чем там, где он равен 0; входы упорядочиваются по возрастанию
+    // этого числа единиц (при равенстве - по номеру)
+    private static NpnTransform heuristic(BooleanFunction f) {
+        int n = f.getVariablesCount();
+        var table = f.toLongArray();
+        long ones = f.onesCount();
+        boolean outputNegated = ones * 2 > (1L << n);
+        if(outputNegated) {
+            table = not(table, n);
+            ones = (1L << n) - ones;
+        }
+        long[] counts = new long[n];
+        for(int w = 0; w < table.length; w++) {
+            int wordCount = Long.bitCount(table[w]);
+            for(int i = 0; i < n; i++) {
+                if(i < 6) {
+                    counts[i] += Long.bitCount(table[w] & TruthTables.variableMask(i));
+                }
+                else if(((w >>> (i - 6)) & 1) != 0) {
+                    counts[i] += wordCount;
+                }
+            }
+        }
+        var neg = new boolean[n];
+        Integer[] order = new Integer[n];
+        for(int i = 0; i < n; i++) {
+            neg[i] = counts[i] * 2 > ones;
+            if(neg[i]) {
+                counts[i] = ones - counts[i];
+            }
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong((Integer i) -> counts[i]).thenComparingInt(i -> i));
+        var perm = new int[n];
+        for(int k = 0; k < n; k++) {
+            perm[order[k]] = k;
+        }
+        var g = apply(f, perm, neg);
+        var notG = not(g, n);
+        if(less(notG, g)) {
+            return new NpnTransform(n, perm, neg, true, notG);
+        }
+        return new NpnTransform(n, perm, neg, false, g);
+    }
+
+    private static NpnTransform exact(BooleanFunction f) {
+        var search = new ExactSearch(f);
+        search.run();
+        return new NpnTransform(f.getVariablesCount(), search.bestPerm, search.bestNeg, search.bestOutputNegated,
+                new long[] {search.best});
+    }
+
+    // полный перебор преобразований функции не более чем от 6 переменных (таблица в одном слове):
+    // перестановки перебираются алгоритмом Хипа, а отрицания входов для каждой перестановки - кодом Грея,
+    // поэтому соседние преобразования отличаются одной транспозицией или одним отрицанием входа
+    private static class ExactSearch {
+        private final int n;
+        private final long mask;
+        private long table;
+        // текущее преобразование (x[j] = y[perm[j]] ^ neg[j])
+        private final int[] perm;
+        private final boolean[] neg;
+        private long best;
+        private int[] bestPerm;
+        private boolean[] bestNeg;
+        private boolean bestOutputNegated;
+
+        ExactSearch(BooleanFunction f) {
+            n = f.getVariablesCount();
+            mask = TruthTables.wordMask(n);
+            table = f.toLongArray()[0];
+            perm = new int[n];
+            neg = new boolean[n];
+            for(int i = 0; i < n; i++) {
+                perm[i] = i;
+            }
+            best = -1L;
+        }
+
+        void run() {
+            visitNegations();
+            int[] c = new int[n];
+            int i = 1;
+            while(i < n) {
+                if(c[i] < i) {
+                    swap(i % 2 == 0 ? 0 : c[i], i);
+                    visitNegations();
+                    c[i]++;
+                    i = 1;
+                }
+                else {
+                    c[i] = 0;
+                    i++;
+                }
+            }
+        }
+
+        // перебор отрицаний входов кодом Грея (в конце все отрицания снимаются)
+        private void visitNegations() {
+            visit();
+            for(int step = 1; step < (1 << n); step++) {
+                negate(Integer.numberOfTrailingZeros(step));
+                visit();
+            }
+            if(n > 0) {
+                negate(n - 1);
+            }
+        }
+
+        private void visit() {
+            long negated = ~table & mask;
+            long candidate = Long.compareUnsigned(negated, table) < 0 ? negated : table;
+            if(bestPerm == null || Long.compareUnsigned(candidate, best) < 0) {
+                best = candidate;
+                bestPerm = perm.clone();
+                bestNeg = neg.clone();
+                bestOutputNegated = candidate != table;
+            }
+        }
+
+        // g'(y) = g(y с инвертированным y[i])
+        private void negate(int i) {
+            int shift = 1 << i;
+            long m = TruthTables.variableMask(i);
+            table = ((table & m) >>> shift) | ((table & ~m) << shift);
+            for(int j = 0; j < n; j++) {
+                if(perm[j] == i) {
+                    neg[j] = !neg[j];
+                }
+            }
+        }
+
+        // g'(y) = g(y с переставленными y[i] и y[k])
+        private void swap(int i, int k) {
+            if(i == k) {
+                return;
+            }
+            if(i > k) {
+                int t = i;
+                i = k;
+                k = t;
+            }
+            int shift = (1 << k) - (1 << i);
+            long m = TruthTables.variableMask(i) & ~TruthTables.variableMask(k);
+            table = (table & ~(m | (m << shift))) | ((table & m) << shift) | ((table >>> shift) & m);
+            for(int j = 0; j < n; j++) {
+                if(perm[j] == i) {
+                    perm[j] = k;
+                }
+                else if(perm[j] == k) {
+                    perm[j] = i;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,420 @@
+package neilyich.bf.minimization.cover;
+
+import neilyich.bf.minimization.MinimizationLimits;
+
+import java.util.*;
+
+// точное решение задачи о покрытии минимальной стоимости методом ветвей и границ
+// строки - кандидаты в покрытие (со стоимостями), столбцы - элементы, каждый из которых должен быть покрыт хотя бы одной
+// выбранной строкой. ветвление идет по непокрытому столбцу с наименьшим числом допустимых строк, в каждой следующей
+// ветви уже рассмотренные строки этого столбца запрещаются. нижняя граница - сумма минимальных стоимостей по набору
+// попарно независимых столбцов (не имеющих общих допустимых строк), верхняя - изначально жадное покрытие
+public class CoverSolver {
+    private final int rowsCount;
+    private final int columnsCount;
+    private final long[] costs;
+    // для каждого столбца - битовая маска покрывающих его строк
+    private final long[][] rowsOfColumn;
+    // для каждой строки - битовая маска покрываемых ей столбцов
+    private final long[][] columnsOfRow;
+
+    private static final long INFEASIBLE = Long.MAX_VALUE / 2;
+    // ограничения проверяются через каждые CHECK_INTERVAL_MASK + 1 узлов дерева поиска
+    private static final long CHECK_INTERVAL_MASK = 63;
+
+    private long bestCost;
+    private long[] bestRows;
+    // число рассмотренных узлов дерева поиска
+    private long nodesCount;
+    private MinimizationLimits limits;
+    // нарушенное ограничение, на котором поиск был остановлен (null - поиск выполнен полностью)
+    private MinimizationLimits.Limit exceededLimit;
+
+    // costs[r] - стоимость строки r, columns[c] - номера строк, покрывающих столбец c
+    public CoverSolver(long[] costs, int[][] columns) {
+        this.rowsCount = costs.length;
+        this.columnsCount = columns.length;
+        this.costs = costs;
+        rowsOfColumn = new long[columnsCount][words(rowsCount)];
+        columnsOfRow = new long[rowsCount][words(columnsCount)];
+        for(int c = 0; c < columnsCount; c++) {
+            for(int r : columns[c]) {
+                set(rowsOfColumn[c], r);
+                set(columnsOfRow[r], c);
+            }
+        }
+    }
+
+    // примерный объем памяти битовых матриц решателя для таблицы rowsCount x columnsCount
+    public static long bytes(int rowsCount, int columnsCount) {
+        return 2L * rowsCount * columnsCount / 8 + 32L * (rowsCount + columnsCount);
+    }
+
+    // номера строк минимального покрытия (в порядке возрастания)
+    public int[] solve() {
+        return solve(MinimizationLimits.NONE);
+    }
+
+    // решение с проверкой ограничений: при нарушении ограничения поиск останавливается и возвращается лучшее
+    // найденное покрытие (не хуже жадного), а getExceededLimit() возвращает нарушенное ограничение
+    public int[] solve(MinimizationLimits limits) {
+        var uncovered = new long[words(columnsCount)];
+        for(int c = 0; c < columnsCount; c++) {
+            if(isEmpty(rowsOfColumn[c])) {
+                throw new RuntimeException("column " + c + " can not be covered");
+            }
+            set(uncovered, c);
+        }
+        var allowed = new long[words(rowsCount)];
+        for(int r = 0; r < rowsCount; r++) {
+            set(allowed, r);
+        }
+        bestRows = greedyCover(uncovered);
+        bestCost = costOf(bestRows);
+        nodesCount = 0;
+        this.limits = limits;
+        exceededLimit = null;
+        search(uncovered, allowed, new long[words(rowsCount)], 0);
+        return toIndices(bestRows);
+    }
+
+    // стоимость найденного минимального покрытия
+    public long getBestCost() {
+        return bestCost;
+    }
+
+    // число узлов дерева поиска, рассмотренных при последнем решении
+    public long getNodesCount() {
+        return nodesCount;
+    }
+
+    // ограничение, на котором было остановлено последнее решение (null - найдено минимальное покрытие)
+    public MinimizationLimits.Limit getExceededLimit() {
+        return exceededLimit;
+    }
+
+    private void search(long[] uncovered, long[] allowed, long[] chosen, long cost) {
+        if((nodesCount++ & CHECK_INTERVAL_MASK) == 0 && exceededLimit == null) {
+            exceededLimit = limits.check();
+        }
+        if(exceededLimit != null) {
+            return;
+        }
+        var forcedChosen = chosen;
+        var rest = uncovered;
+        var restAllowed = allowed;
+        int[] order;
+        while(true) {
+            // столбцы, у которых осталась единственная допустимая строка, покрываются ей без ветвления
+            for(int c = nextSetBit(rest, 0); c >= 0; c = nextSetBit(rest, c + 1)) {
+                if(andCount(rowsOfColumn[c], restAllowed) <= 1) {
+                    int r = nextSetBit(and(rowsOfColumn[c], restAllowed), 0);
+                    if(r < 0) {
+                        return;
+                    }
+                    if(forcedChosen == chosen) {
+                        forcedChosen = chosen.clone();
+                        rest = uncovered.clone();
+                    }
+                    set(forcedChosen, r);
+                    cost += costs[r];
+                    andNotInPlace(rest, columnsOfRow[r]);
+                }
+            }
+            if(isEmpty(rest)) {
+                if(cost < bestCost) {
+                    bestCost = cost;
+                    bestRows = forcedChosen.clone();
+                }
+                return;
+            }
+            // непокрытые столбцы в порядке возрастания числа допустимых строк
+            order = columnsByRowsCount(rest, restAllowed);
+            if(cost + lowerBound(order, restAllowed, rest) >= bestCost) {
+                return;
+            }
+            var dominated = dominatedRows(rest, restAllowed);
+            if(exceededLimit != null) {
+                return;
+            }
+            if(dominated == null) {
+                break;
+            }
+            restAllowed = andNot(restAllowed, dominated);
+        }
+        int column = order[0];
+        var candidates = new ArrayList<Integer>();
+        var candidateRows = and(rowsOfColumn[column], restAllowed);
+        for(int r = nextSetBit(candidateRows, 0); r >= 0; r = nextSetBit(candidateRows, r + 1)) {
+            candidates.add(r);
+        }
+        // сначала строки с наименьшей стоимостью на один покрываемый столбец
+        var uncoveredRest = rest;
+        candidates.sort(Comparator.comparingDouble(r -> (double) costs[r] / andCount(columnsOfRow[r], uncoveredRest)));
+        var branchAllowed = restAllowed.clone();
+        for(int r : candidates) {
+            if(exceededLimit != null) {
+                return;
+            }
+            set(forcedChosen, r);
+            search(andNot(rest, columnsOfRow[r]), branchAllowed, forcedChosen, cost + costs[r]);
+            clear(forcedChosen, r);
+            clear(branchAllowed, r);
+        }
+    }
+
+    // маска допустимых строк, которые можно исключить (null - таких нет): строки, не покрывающие ни одного
+    // непокрытого столбца, и строки, покрывающие подмножество столбцов другой не более дорогой строки
+    // (из строк с одинаковыми столбцами и стоимостью остается строка с меньшим номером)
+    // для больших таблиц поиск долгий, поэтому в нем тоже проверяются ограничения
+    private long[] dominatedRows(long[] uncovered, long[] allowed) {
+        long[] dominated = null;
+        var rows = toIndices(allowed);
+        var covered = new long[rows.length][];
+        var counts = new int[rows.length];
+        for(int i = 0; i < rows.length; i++) {
+            covered[i] = and(columnsOfRow[rows[i]], uncovered);
+            counts[i] = andCount(covered[i], covered[i]);
+            if(counts[i] == 0) {
+                if(dominated == null) {
+                    dominated = new long[allowed.length];
+                }
+                set(dominated, rows[i]);
+            }
+        }
+        for(int i = 0; i < rows.length; i++) {
+            if((i & CHECK_INTERVAL_MASK) == CHECK_INTERVAL_MASK && (exceededLimit = limits.check()) != null) {
+                return dominated;
+            }
+            int r = rows[i];
+            if(counts[i] == 0) {
+                continue;
+            }
+            for(int j = 0; j < rows.length; j++) {
+                int s = rows[j];
+                if(i == j || counts[j] < counts[i] || costs[s] > costs[r] || (dominated != null && get(dominated, s))) {
+                    continue;
+                }
+                if(isSubset(covered[i], covered[j])
+                        && (costs[s] < costs[r] || counts[j] > counts[i] || s < r)) {
+                    if(dominated == null) {
+                        dominated = new long[allowed.length];
+                    }
+                    set(dominated, r);
+                    break;
+                }
+            }
+        }
+        return dominated;
+    }
+
+    private int[] columnsByRowsCount(long[] uncovered, long[] allowed) {
+        var keys = new long[andCount(uncovered, uncovered)];
+        int k = 0;
+        for(int c = nextSetBit(uncovered, 0); c >= 0; c = nextSetBit(uncovered, c + 1)) {
+            keys[k++] = ((long) andCount(rowsOfColumn[c], allowed) << 32) | c;
+        }
+        Arrays.sort(keys);
+        var order = new int[keys.length];
+        for(int i = 0; i < keys.length; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    // нижняя граница стоимости покрытия оставшихся столбцов - максимум из двух оценок
+    private long lowerBound(int[] order, long[] allowed, long[] uncovered) {
+        return Math.max(independentColumnsBound(order, allowed), sharedCostBound(uncovered, allowed));
+    }
+
+    // оценка по независимым столбцам: каждый из них требует собственной строки, поэтому стоимости самых дешевых
+    // строк этих столбцов складываются (столбцы перебираются начиная с имеющих меньше всего строк)
+    private long independentColumnsBound(int[] order, long[] allowed) {
+        long bound = 0;
+        var blocked = new long[words(rowsCount)];
+        for(int c : order) {
+            var rows = rowsOfColumn[c];
+            if(intersects(rows, blocked, allowed)) {
+                continue;
+            }
+            long min = Long.MAX_VALUE;
+            for(int w = 0; w < rows.length; w++) {
+                long bits = rows[w] & allowed[w];
+                blocked[w] |= bits;
+                for(; bits != 0; bits &= bits - 1) {
+                    min = Math.min(min, costs[(w << 6) + Long.numberOfTrailingZeros(bits)]);
+                }
+            }
+            if(min == Long.MAX_VALUE) {
+                return INFEASIBLE;
+            }
+            bound += min;
+        }
+        return bound;
+    }
+
+    // оценка с разделением стоимости: стоимость строки делится поровну между непокрытыми столбцами, которые она
+    // покрывает, и для каждого столбца берется наименьшая доля среди его допустимых строк
+    private long sharedCostBound(long[] uncovered, long[] allowed) {
+        var share = new double[rowsCount];
+        double bound = 0;
+        for(int c = nextSetBit(uncovered, 0); c >= 0; c = nextSetBit(uncovered, c + 1)) {
+            var rows = rowsOfColumn[c];
+            double min = Double.MAX_VALUE;
+            for(int w = 0; w < rows.length; w++) {
+                for(long bits = rows[w] & allowed[w]; bits != 0; bits &= bits - 1) {
+                    int r = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    if(share[r] == 0) {
+                        share[r] = (double) costs[r] / andCount(columnsOfRow[r], uncovered);
+                    }
+                    min = Math.min(min, share[r]);
+                }
+            }
+            if(min == Double.MAX_VALUE) {
+                return INFEASIBLE;
+            }
+            bound += min;
+        }
+        return (long) Math.ceil(bound - 1e-9);
+    }
+
+    // жадное покрытие: на каждом шаге берется строка с наименьшей стоимостью на один новый покрытый столбец
+    // (число новых покрываемых столбцов каждой строки уменьшается по мере покрытия столбцов)
+    private long[] greedyCover(long[] uncovered) {
+        var rest = uncovered.clone();
+        var chosen = new long[words(rowsCount)];
+        var counts = new int[rowsCount];
+        for(int r = 0; r < rowsCount; r++) {
+            counts[r] = andCount(columnsOfRow[r], rest);
+        }
+        while(!isEmpty(rest)) {
+            int best = -1;
+            double bestRate = Double.MAX_VALUE;
+            for(int r = 0; r < rowsCount; r++) {
+                if(counts[r] > 0 && (double) costs[r] / counts[r] < bestRate) {
+                    bestRate = (double) costs[r] / counts[r];
+                    best = r;
+                }
+            }
+            set(chosen, best);
+            var covered = and(rest, columnsOfRow[best]);
+            for(int c = nextSetBit(covered, 0); c >= 0; c = nextSetBit(covered, c + 1)) {
+                var rows = rowsOfColumn[c];
+                for(int w = 0; w < rows.length; w++) {
+                    for(long bits = rows[w]; bits != 0; bits &= bits - 1) {
+                        counts[(w << 6) + Long.numberOfTrailingZeros(bits)]--;
+                    }
+                }
+            }
+            andNotInPlace(rest, columnsOfRow[best]);
+        }
+        return chosen;
+    }
+
+    private long costOf(long[] rows) {
+        long cost = 0;
+        for(int r = nextSetBit(rows, 0); r >= 0; r = nextSetBit(rows, r + 1)) {
+            cost += costs[r];
+        }
+        return cost;
+    }
+
+    private static int[] toIndices(long[] bits) {
+        int[] res = new int[andCount(bits, bits)];
+        int k = 0;
+        for(int i = nextSetBit(bits, 0); i >= 0; i = nextSetBit(bits, i + 1)) {
+            res[k++] = i;
+        }
+        return res;
+    }
+
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    private static void set(long[] bits, int i) {
+        bits[i >>> 6] |= 1L << i;
+    }
+
+    private static boolean get(long[] bits, int i) {
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    private static void clear(long[] bits, int i) {
+        bits[i >>> 6] &= ~(1L << i);
+    }
+
+    private static boolean isEmpty(long[] bits) {
+        for(long w : bits) {
+            if(w != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int nextSetBit(long[] bits, int from) {
+        int w = from >>> 6;
+        if(w >= bits.length) {
+            return -1;
+        }
+        long word = bits[w] & (-1L << from);
+        while(true) {
+            if(word != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if(++w == bits.length) {
+                return -1;
+            }
+            word = bits[w];
+        }
+    }
+
+    private static int andCount(long[] a, long[] b) {
+        int n = 0;
+        for(int w = 0; w < a.length; w++) {
+            n += Long.bitCount(a[w] & b[w]);
+        }
+        return n;
+    }
+
+    private static boolean intersects(long[] a, long[] b, long[] mask) {
+        for(int w = 0; w < a.length; w++) {
+            if((a[w] & b[w] & mask[w]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSubset(long[] a, long[] b) {
+        for(int w = 0; w < a.length; w++) {
+            if((a[w] & ~b[w]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long[] and(long[] a, long[] b) {
+        var res = new long[a.length];
+        for(int w = 0; w < a.length; w++) {
+            res[w] = a[w] & b[w];
+        }
+        return res;
+    }
+
+    private static void andNotInPlace(long[] a, long[] b) {
+        for(int w = 0; w < a.length; w++) {
+            a[w] &= ~b[w];
+        }
+    }
+
+    private static long[] andNot(long[] a, long[] b) {
+        var res = new long[a.length];
+        for(int w = 0; w < a.length; w++) {
+            res[w] = a[w] & ~b[w];
+        }
+        return res;
+    }
+}
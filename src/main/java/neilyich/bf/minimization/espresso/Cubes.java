@@ -0,0 +1,142 @@
+package neilyich.bf.minimization.espresso;
+
+import neilyich.bf.minimization.CoverChecks;
+import neilyich.bf.minimization.Implicant;
+
+import java.util.*;
+
+// операции над покрытиями из кубов (ДНФ), не требующие перебора наборов: кофакторы, проверка тавтологии
+// (см. CoverChecks), наименьший куб, содержащий дополнение покрытия
+// (поддерживаются кубы не более чем от 64 переменных)
+public final class Cubes {
+    private Cubes() {
+    }
+
+    private static long care(Implicant cube) {
+        return cube.getVariablesCount() == 0 ? 0 : cube.careWord(0);
+    }
+
+    private static long values(Implicant cube) {
+        return cube.getVariablesCount() == 0 ? 0 : cube.valuesWord(0);
+    }
+
+    // true - если кубы имеют общие наборы
+    public static boolean intersects(Implicant a, Implicant b) {
+        return ((values(a) ^ values(b)) & care(a) & care(b)) == 0;
+    }
+
+    // наименьший куб, содержащий оба куба
+    public static Implicant supercube(Implicant a, Implicant b) {
+        long care = care(a) & care(b) & ~(values(a) ^ values(b));
+        return new Implicant(a.getVariablesCount(), care, values(a));
+    }
+
+    // пересечение кубов (null - если кубы не пересекаются)
+    public static Implicant intersection(Implicant a, Implicant b) {
+        if(!intersects(a, b)) {
+            return null;
+        }
+        return new Implicant(a.getVariablesCount(), care(a) | care(b), values(a) | values(b));
+    }
+
+    // кофактор покрытия по кубу: кубы, пересекающиеся с cube, из которых удалены литералы cube
+    public static List<Implicant> cofactor(List<Implicant> cover, Implicant cube) {
+        long care = care(cube);
+        List<Implicant> res = new ArrayList<>();
+        for(var c: cover) {
+            if(intersects(c, cube)) {
+                res.add(new Implicant(c.getVariablesCount(), care(c) & ~care, values(c)));
+            }
+        }
+        return res;
+    }
+
+    // кофактор покрытия по литералу (переменная var принимает значение value)
+    private static List<Implicant> cofactor(List<Implicant> cover, int var, boolean value) {
+        long bit = 1L << var;
+        List<Implicant> res = new ArrayList<>(cover.size());
+        for(var c: cover) {
+            if((care(c) & bit) == 0) {
+                res.add(c);
+            }
+            else if(((values(c) & bit) != 0) == value) {
+                res.add(new Implicant(c.getVariablesCount(), care(c) & ~bit, values(c)));
+            }
+        }
+        return res;
+    }
+
+    // true - если покрытие равно 1 на всех наборах
+    public static boolean isTautology(List<Implicant> cover) {
+        return CoverChecks.isTautology(cover);
+    }
+
+    // true - если куб содержится в объединении кубов покрытия
+    public static boolean covers(List<Implicant> cover, Implicant cube) {
+        return CoverChecks.contains(cover, cube);
+    }
+
+    // наименьший куб, содержащий дополнение покрытия (null - если дополнение пусто)
+    public static Implicant supercubeOfComplement(List<Implicant> cover, int variablesCount) {
+        if(cover.isEmpty()) {
+            return new Implicant(variablesCount);
+        }
+        long positive = 0;
+        long negative = 0;
+        for(var c: cover) {
+            long care = care(c);
+            if(care == 0) {
+                return null;
+            }
+            positive |= care & values(c);
+            negative |= care & ~values(c);
+        }
+        if(cover.size() == 1) {
+            // дополнение куба - объединение отрицаний его литералов
+            var c = cover.get(0);
+            if(Long.bitCount(care(c)) > 1) {
+                return new Implicant(variablesCount);
+            }
+            return new Implicant(variablesCount, care(c), ~values(c));
+        }
+        long binate = positive & negative;
+        int var = mostFrequent(cover, binate != 0 ? binate : positive | negative);
+        long bit = 1L << var;
+        var one = supercubeOfComplement(cofactor(cover, var, true), variablesCount);
+        var zero = supercubeOfComplement(cofactor(cover, var, false), variablesCount);
+        if(one != null) {
+            one = new Implicant(variablesCount, care(one) | bit, values(one) | bit);
+        }
+        if(zero != null) {
+            zero = new Implicant(variablesCount, care(zero) | bit, values(zero) & ~bit);
+        }
+        if(one == null) {
+            return zero;
+        }
+        if(zero == null) {
+            return one;
+        }
+        return supercube(one, zero);
+    }
+
+    // переменная из маски, встречающаяся в наибольшем числе кубов
+    private static int mostFrequent(List<Implicant> cover, long candidates) {
+        int best = Long.numberOfTrailingZeros(candidates);
+        int bestCount = -1;
+        for(long rest = candidates; rest != 0; rest &= rest - 1) {
+            int var = Long.numberOfTrailingZeros(rest);
+            long bit = 1L << var;
+            int count = 0;
+            for(var c: cover) {
+                if((care(c) & bit) != 0) {
+                    count++;
+                }
+            }
+            if(count > bestCount) {
+                bestCount = count;
+                best = var;
+            }
+        }
+        return best;
+    }
+}
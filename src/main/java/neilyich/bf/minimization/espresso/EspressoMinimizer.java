@@ -0,0 +1,366 @@
+package neilyich.bf.minimization.espresso;
+
+import neilyich.bf.minimization.BooleanFunction;
+import neilyich.bf.minimization.Implicant;
+import neilyich.bf.minimization.MinimizationLimits;
+import neilyich.bf.minimization.MinimizationListener;
+import neilyich.bf.minimization.Minimizer;
+import neilyich.bf.minimization.TruthTables;
+
+import java.util.*;
+
+// эвристическая минимизация в духе Espresso: вместо списка всех простых импликант и таблицы покрытия
+// хранится одно покрытие из кубов, которое улучшается циклом reduce -> expand -> irredundant,
+// пока уменьшается число слагаемых (а при равном числе - число литералов)
+// результат близок к минимальному, но минимальность не гарантируется
+// при нарушении ограничений возвращается последнее полностью построенное покрытие: прерванные reduce и expand
+// отбрасываются, прерванный irredundant оставляет еще не проверенные кубы, а если начальное покрытие еще не
+// построено, в него без расширения добавляются оставшиеся единичные наборы
+public class EspressoMinimizer implements Minimizer {
+    // ограничение на число итераций цикла улучшения (обычно цикл останавливается за несколько итераций)
+    private static final int MAX_ITERATIONS = 32;
+    // ограничения проверяются через каждые CHECK_INTERVAL_MASK + 1 наборов при построении начального покрытия
+    // и через каждые CHECK_INTERVAL_MASK + 1 кубов в проходах reduce, expand и irredundant
+    private static final int CHECK_INTERVAL_MASK = 63;
+    // наибольшее число переменных, при котором для каждого набора хранится число покрывающих его кубов
+    // (по 4 байта на набор); при большем числе переменных или недостаточном бюджете памяти кубы,
+    // пересекающиеся с проверяемым, ищутся перебором всего покрытия
+    private static final int MAX_COUNTED_VARIABLES = 26;
+
+    private int variablesCount;
+    // вектор значений минимизируемой функции (по нему проверяется, что расширенный куб остается импликантой)
+    private long[] table;
+    // число кубов покрытия, содержащих каждый набор (null - счетчики не используются)
+    private int[] counts;
+
+    // получение минимизированной БФ
+    public BooleanFunction minimize(BooleanFunction f, MinimizationListener listener, MinimizationLimits limits) {
+        listener.onStart(f);
+        variablesCount = f.getVariablesCount();
+        BooleanFunction res;
+        if(f.onesCount() == 0) {
+            res = BooleanFunction.of(variablesCount, List.of());
+        }
+        else if(f.isImplicant(new Implicant(variablesCount))) {
+            res = BooleanFunction.of(variablesCount, List.of(new Implicant(variablesCount)));
+        }
+        else {
+            long start = System.nanoTime();
+            table = f.toLongArray();
+            if(variablesCount <= MAX_COUNTED_VARIABLES && 4L << variablesCount <= limits.getMemoryBudget()) {
+                counts = new int[1 << variablesCount];
+            }
+            MinimizationLimits.Limit[] exceeded = new MinimizationLimits.Limit[1];
+            var cover = expandMinterms(limits, exceeded);
+            if(exceeded[0] != null) {
+                listener.onLimitExceeded(exceeded[0], "initial cover");
+            }
+            else {
+                cover = irredundant(cover, limits, exceeded);
+                if(exceeded[0] != null) {
+                    listener.onLimitExceeded(exceeded[0], "irredundant");
+                }
+            }
+            listener.onPhase("initial cover", System.nanoTime() - start);
+            trace(listener, "Initial cover: ", cover);
+            start = System.nanoTime();
+            for(int iteration = 1; iteration <= MAX_ITERATIONS && exceeded[0] == null; iteration++) {
+                exceeded[0] = limits.check();
+                if(exceeded[0] != null) {
+                    listener.onLimitExceeded(exceeded[0], "improve");
+                    break;
+                }
+                var next = reduce(cover, limits, exceeded);
+                if(next == null) {
+                    listener.onLimitExceeded(exceeded[0], "reduce");
+                    break;
+                }
+                next = expand(next, limits, exceeded);
+                if(next == null) {
+                    listener.onLimitExceeded(exceeded[0], "expand");
+                    break;
+                }
+                // покрытие после прерванного irredundant корректно и принимается, если оно лучше текущего
+                next = irredundant(next, limits, exceeded);
+                if(exceeded[0] != null) {
+                    listener.onLimitExceeded(exceeded[0], "irredundant");
+                }
+                if(compare(next, cover) >= 0) {
+                    break;
+                }
+                cover = next;
+                trace(listener, "Iteration " + iteration + ": ", cover);
+            }
+            listener.onPhase("improve", System.nanoTime() - start);
+            table = null;
+            counts = null;
+            res = BooleanFunction.of(variablesCount, cover);
+        }
+        listener.onFinish(res);
+        return res;
+    }
+
+    // начальное покрытие: каждый еще не покрытый единичный набор расширяется до простой импликанты
+    // (после нарушения ограничения, которое записывается в exceeded[0], наборы добавляются без расширения)
+    private List<Implicant> expandMinterms(MinimizationLimits limits, MinimizationLimits.Limit[] exceeded) {
+        List<Implicant> cover = new ArrayList<>();
+        var remaining = table.clone();
+        int count = 0;
+        for(int w = 0; w < remaining.length; w++) {
+            while(remaining[w] != 0) {
+                int number = (w << 6) + Long.numberOfTrailingZeros(remaining[w]);
+                if(exceeded[0] == null && (count++ & CHECK_INTERVAL_MASK) == 0) {
+                    exceeded[0] = limits.check();
+                }
+                if(exceeded[0] != null) {
+                    remaining[w] &= remaining[w] - 1;
+                    cover.add(new Implicant(variablesCount, number));
+                    continue;
+                }
+                var prime = expand(new Implicant(variablesCount, number), remaining);
+                TruthTables.clear(remaining, variablesCount, prime);
+                cover.add(prime);
+            }
+        }
+        return cover;
+    }
+
+    // расширение всех кубов покрытия до простых импликант
+    // (кубы, все наборы которых уже покрыты расширенными кубами, удаляются)
+    // (null - нарушено ограничение, оно записывается в exceeded[0])
+    private List<Implicant> expand(List<Implicant> cover, MinimizationLimits limits, MinimizationLimits.Limit[] exceeded) {
+        var remaining = table.clone();
+        List<Implicant> sorted = new ArrayList<>(cover);
+        sorted.sort(Comparator.comparingInt(Implicant::literalsCount));
+        List<Implicant> res = new ArrayList<>(cover.size());
+        for(int i = 0; i < sorted.size(); i++) {
+            if(isExceeded(i, limits, exceeded)) {
+                return null;
+            }
+            var cube = sorted.get(i);
+            if(TruthTables.count(remaining, variablesCount, cube) == 0) {
+                continue;
+            }
+            var prime = expand(cube, remaining);
+            TruthTables.clear(remaining, variablesCount, prime);
+            res.add(prime);
+        }
+        return res;
+    }
+
+    // расширение куба: пока возможно, из него удаляется литерал, после удаления которого куб остается
+    // импликантой, причем выбирается литерал, добавляющий больше всего еще не покрытых наборов
+    private Implicant expand(Implicant cube, long[] remaining) {
+        long care = cube.careWord(0);
+        long values = cube.valuesWord(0);
+        while(true) {
+            int bestVar = -1;
+            int bestGain = -1;
+            for(long rest = care; rest != 0; rest &= rest - 1) {
+                long bit = rest & -rest;
+                var flipped = new Implicant(variablesCount, care, values ^ bit);
+                if(!TruthTables.containsAll(table, variablesCount, flipped)) {
+                    continue;
+                }
+                int gain = TruthTables.count(remaining, variablesCount, flipped);
+                if(gain > bestGain) {
+                    bestGain = gain;
+                    bestVar = Long.numberOfTrailingZeros(bit);
+                }
+            }
+            if(bestVar < 0) {
+                return new Implicant(variablesCount, care, values);
+            }
+            care &= ~(1L << bestVar);
+        }
+    }
+
+    // удаление избыточных кубов (покрываемых объединением остальных), начиная с кубов с наибольшим числом литералов
+    // (со счетчиками куб избыточен, если каждый его набор покрыт хотя бы двумя кубами)
+    // при нарушении ограничения, которое записывается в exceeded[0], еще не проверенные кубы остаются в покрытии
+    private List<Implicant> irredundant(List<Implicant> cover, MinimizationLimits limits,
+                                        MinimizationLimits.Limit[] exceeded) {
+        List<Implicant> res = new ArrayList<>(cover);
+        res.sort(Comparator.comparingInt(Implicant::literalsCount).reversed());
+        if(counts != null) {
+            count(res);
+            List<Implicant> kept = new ArrayList<>(res.size());
+            for(int i = 0; i < res.size(); i++) {
+                if(isExceeded(i, limits, exceeded)) {
+                    kept.addAll(res.subList(i, res.size()));
+                    break;
+                }
+                var cube = res.get(i);
+                if(isCoveredByOthers(cube)) {
+                    count(cube, -1);
+                }
+                else {
+                    kept.add(cube);
+                }
+            }
+            return kept;
+        }
+        for(int i = 0, checked = 0; i < res.size(); checked++) {
+            if(isExceeded(checked, limits, exceeded)) {
+                break;
+            }
+            var cube = res.get(i);
+            if(Cubes.covers(others(res, i, cube), cube)) {
+                res.remove(i);
+            }
+            else {
+                i++;
+            }
+        }
+        return res;
+    }
+
+    // сжатие кубов: каждый куб заменяется наименьшим кубом, содержащим его наборы, не покрытые остальными кубами
+    // (кубы сжимаются по очереди, начиная с самых больших; куб, полностью покрытый остальными, удаляется)
+    // (null - нарушено ограничение, оно записывается в exceeded[0])
+    private List<Implicant> reduce(List<Implicant> cover, MinimizationLimits limits, MinimizationLimits.Limit[] exceeded) {
+        List<Implicant> res = new ArrayList<>(cover);
+        res.sort(Comparator.comparingInt(Implicant::literalsCount));
+        if(counts != null) {
+            count(res);
+            List<Implicant> reduced = new ArrayList<>(res.size());
+            for(int i = 0; i < res.size(); i++) {
+                if(isExceeded(i, limits, exceeded)) {
+                    return null;
+                }
+                var cube = res.get(i);
+                var rest = uncoveredSupercube(cube);
+                count(cube, -1);
+                if(rest != null) {
+                    count(rest, 1);
+                    reduced.add(rest);
+                }
+            }
+            return reduced;
+        }
+        for(int i = 0, checked = 0; i < res.size(); checked++) {
+            if(isExceeded(checked, limits, exceeded)) {
+                return null;
+            }
+            var cube = res.get(i);
+            var rest = Cubes.supercubeOfComplement(Cubes.cofactor(others(res, i, cube), cube), variablesCount);
+            if(rest == null) {
+                res.remove(i);
+            }
+            else {
+                res.set(i, Cubes.intersection(cube, rest));
+                i++;
+            }
+        }
+        return res;
+    }
+
+    // проверка ограничений перед обработкой i-го куба прохода (через каждые CHECK_INTERVAL_MASK + 1 кубов)
+    private static boolean isExceeded(int i, MinimizationLimits limits, MinimizationLimits.Limit[] exceeded) {
+        if((i & CHECK_INTERVAL_MASK) == 0) {
+            exceeded[0] = limits.check();
+        }
+        return exceeded[0] != null;
+    }
+
+    // подсчет покрывающих кубов для всех наборов
+    private void count(List<Implicant> cover) {
+        Arrays.fill(counts, 0);
+        for(var cube: cover) {
+            count(cube, 1);
+        }
+    }
+
+    // изменение на delta счетчиков всех наборов куба
+    // (наборы куба - значения его литералов вместе со всеми подмножествами отсутствующих переменных)
+    private void count(Implicant cube, int delta) {
+        long free = free(cube);
+        long values = cube.valuesWord(0);
+        long sub = 0;
+        do {
+            counts[(int) (values | sub)] += delta;
+            sub = (sub - free) & free;
+        } while(sub != 0);
+    }
+
+    // true - если каждый набор куба покрыт еще хотя бы одним кубом
+    private boolean isCoveredByOthers(Implicant cube) {
+        long free = free(cube);
+        long values = cube.valuesWord(0);
+        long sub = 0;
+        do {
+            if(counts[(int) (values | sub)] < 2) {
+                return false;
+            }
+            sub = (sub - free) & free;
+        } while(sub != 0);
+        return true;
+    }
+
+    // наименьший куб, содержащий наборы куба, не покрытые остальными кубами (null - если таких наборов нет)
+    private Implicant uncoveredSupercube(Implicant cube) {
+        long free = free(cube);
+        long values = cube.valuesWord(0);
+        // пересечение и объединение номеров непокрытых наборов
+        long all = -1;
+        long any = 0;
+        boolean found = false;
+        long sub = 0;
+        do {
+            long number = values | sub;
+            if(counts[(int) number] == 1) {
+                all &= number;
+                any |= number;
+                found = true;
+            }
+            sub = (sub - free) & free;
+        } while(sub != 0);
+        if(!found) {
+            return null;
+        }
+        long care = (all | ~any) & mask();
+        return new Implicant(variablesCount, care, all & care);
+    }
+
+    private long free(Implicant cube) {
+        return ~cube.careWord(0) & mask();
+    }
+
+    private long mask() {
+        return (1L << variablesCount) - 1;
+    }
+
+    // кубы покрытия, кроме i-го, пересекающиеся с заданным кубом
+    private static List<Implicant> others(List<Implicant> cover, int i, Implicant cube) {
+        List<Implicant> res = new ArrayList<>();
+        for(int j = 0; j < cover.size(); j++) {
+            if(j != i && Cubes.intersects(cover.get(j), cube)) {
+                res.add(cover.get(j));
+            }
+        }
+        return res;
+    }
+
+    // сравнение покрытий: сначала по числу кубов, затем по числу литералов
+    private static int compare(List<Implicant> a, List<Implicant> b) {
+        int res = Integer.compare(a.size(), b.size());
+        if(res == 0) {
+            res = Integer.compare(literalsCount(a), literalsCount(b));
+        }
+        return res;
+    }
+
+    private static int literalsCount(List<Implicant> cover) {
+        int count = 0;
+        for(var cube: cover) {
+            count += cube.literalsCount();
+        }
+        return count;
+    }
+
+    private static void trace(MinimizationListener listener, String prefix, List<Implicant> cover) {
+        if(listener.isTracing()) {
+            listener.onTrace(prefix + cover.size() + " implicants, " + literalsCount(cover) + " literals", () -> "");
+        }
+    }
+}
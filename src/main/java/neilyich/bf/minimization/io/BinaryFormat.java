@@ -0,0 +1,81 @@
+package neilyich.bf.minimization.io;
+
+import neilyich.bf.minimization.TruthTables;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+// двоичный формат потока функций (FunctionWriter и FunctionReader)
+// заголовок: int MAGIC, byte версия формата; далее записи до конца потока, запись начинается с байта типа:
+//     TABLE: varint число переменных n, byte способ кодирования вектора значений, вектор значений
+//     DNF:   varint число переменных n, varint число слагаемых, для каждого слагаемого маска присутствующих
+//            литералов (care) в ceil(n / 8) байтах и значения присутствующих литералов, упакованные подряд
+//            (бит j - значение j-го литерала по возрастанию номера переменной) в ceil(k / 8) байтах, k - число литералов
+// способы кодирования вектора значений:
+//     DENSE - упакованные биты (бит i байта k - значение на наборе 8 * k + i), max(1, 2^(n - 3)) байт
+//     ONES, ZEROS - varint число единичных (нулевых) наборов, затем номер первого набора и разности
+//            номеров соседних наборов минус 1 (varint), для разреженных и почти полных функций
+//     RUNS - то же для номеров наборов, на которых значение отличается от значения на предыдущем наборе
+//            (значение перед набором 0 считается нулевым), для функций из длинных серий нулей и единиц
+// varint - целое без знака по 7 бит в байте, начиная с младших, старший бит байта - признак продолжения
+final class BinaryFormat {
+    static final int MAGIC = 0x42464E46;
+    static final int VERSION = 1;
+
+    static final int TABLE = 1;
+    static final int DNF = 2;
+
+    static final int DENSE = 0;
+    static final int ONES = 1;
+    static final int ZEROS = 2;
+    static final int RUNS = 3;
+
+    private BinaryFormat() {
+    }
+
+    static void writeVarint(DataOutput out, long value) throws IOException {
+        while((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarint(DataInput in) throws IOException {
+        long value = 0;
+        for(int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new RuntimeException("malformed varint");
+    }
+
+    static int varintSize(long value) {
+        return value == 0 ? 1 : (63 - Long.numberOfLeadingZeros(value)) / 7 + 1;
+    }
+
+    // слово i вектора, единичные биты которого - номера наборов, записываемые способом encoding
+    // (для ZEROS - дополнение вектора, для RUNS - наборы, на которых значение меняется)
+    static long positionsWord(long[] table, int variablesCount, int encoding, int i) {
+        switch(encoding) {
+            case ONES:
+                return table[i];
+            case ZEROS:
+                return ~table[i] & TruthTables.wordMask(variablesCount);
+            case RUNS:
+                long previous = i == 0 ? 0 : table[i - 1];
+                return (table[i] ^ ((table[i] << 1) | (previous >>> 63))) & TruthTables.wordMask(variablesCount);
+            default:
+                throw new RuntimeException("unknown table encoding: " + encoding);
+        }
+    }
+
+    // размер вектора значений в байтах при плотной упаковке
+    static long denseSize(int variablesCount) {
+        return variablesCount < 3 ? 1 : 1L << (variablesCount - 3);
+    }
+}
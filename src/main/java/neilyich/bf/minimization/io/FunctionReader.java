@@ -0,0 +1,175 @@
+package neilyich.bf.minimization.io;
+
+import lombok.Getter;
+import neilyich.bf.minimization.BooleanFunction;
+import neilyich.bf.minimization.Implicant;
+import neilyich.bf.minimization.TruthTables;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.*;
+import java.util.function.LongConsumer;
+
+// потоковое чтение функций, записанных FunctionWriter (см. BinaryFormat): заголовок проверяется при создании,
+// записи читаются по одной
+public class FunctionReader implements Closeable {
+    // число слов вектора значений, читаемых в буфер за один раз
+    private static final int BUFFER_WORDS = 1 << 12;
+
+    private final DataInputStream in;
+    // версия формата потока
+    @Getter
+    private final int version;
+
+    public FunctionReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(in instanceof BufferedInputStream ? in : new BufferedInputStream(in));
+        if(this.in.readInt() != BinaryFormat.MAGIC) {
+            throw new RuntimeException("not a binary BF stream");
+        }
+        version = this.in.readUnsignedByte();
+        if(version > BinaryFormat.VERSION) {
+            throw new RuntimeException("unsupported binary BF format version: " + version);
+        }
+    }
+
+    // следующая функция потока (null - конец потока)
+    // для записи ДНФ СДНФ возвращаемой функции - слагаемые этой ДНФ
+    public BooleanFunction read() throws IOException {
+        int type = in.read();
+        if(type < 0) {
+            return null;
+        }
+        long variablesCount = BinaryFormat.readVarint(in);
+        if(variablesCount > BooleanFunction.MAX_VARIABLES_COUNT) {
+            throw new RuntimeException("unsupported variables count: " + variablesCount);
+        }
+        switch(type) {
+            case BinaryFormat.TABLE:
+                return readTable((int) variablesCount);
+            case BinaryFormat.DNF:
+                return readDnf((int) variablesCount);
+            default:
+                throw new RuntimeException("unknown record type: " + type);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private BooleanFunction readTable(int variablesCount) throws IOException {
+        var table = new long[TruthTables.wordsCount(variablesCount)];
+        int encoding = in.readUnsignedByte();
+        switch(encoding) {
+            case BinaryFormat.DENSE:
+                readDense(table, variablesCount);
+                break;
+            case BinaryFormat.ONES:
+                readPositions(variablesCount, position -> table[(int) (position >>> 6)] |= 1L << position);
+                break;
+            case BinaryFormat.ZEROS:
+                Arrays.fill(table, -1L);
+                readPositions(variablesCount, position -> table[(int) (position >>> 6)] &= ~(1L << position));
+                break;
+            case BinaryFormat.RUNS:
+                readRuns(table, variablesCount);
+                break;
+            default:
+                throw new RuntimeException("unknown table encoding: " + encoding);
+        }
+        return new BooleanFunction(variablesCount, table);
+    }
+
+    private void readDense(long[] table, int variablesCount) throws IOException {
+        if(variablesCount < 6) {
+            for(int b = 0; b < BinaryFormat.denseSize(variablesCount); b++) {
+                table[0] |= (long) in.readUnsignedByte() << (8 * b);
+            }
+            return;
+        }
+        var buffer = ByteBuffer.allocate(8 * Math.min(table.length, BUFFER_WORDS)).order(ByteOrder.LITTLE_ENDIAN);
+        for(int from = 0; from < table.length; from += BUFFER_WORDS) {
+            int length = Math.min(BUFFER_WORDS, table.length - from);
+            in.readFully(buffer.array(), 0, 8 * length);
+            buffer.clear();
+            buffer.asLongBuffer().get(table, from, length);
+        }
+    }
+
+    // номера наборов, записанные разностями (каждый номер проверяется до передачи в consumer)
+    private void readPositions(int variablesCount, LongConsumer consumer) throws IOException {
+        long count = BinaryFormat.readVarint(in);
+        long position = -1;
+        for(long i = 0; i < count; i++) {
+            position += BinaryFormat.readVarint(in) + 1;
+            if(position < 0 || position >= 1L << variablesCount) {
+                throw new RuntimeException("set number " + position + " of function of " + variablesCount + " variables");
+            }
+            consumer.accept(position);
+        }
+    }
+
+    // серии: значение меняется на каждом записанном наборе, единичные серии заполняются целыми словами
+    private void readRuns(long[] table, int variablesCount) throws IOException {
+        long[] start = {-1};
+        readPositions(variablesCount, position -> {
+            if(start[0] < 0) {
+                start[0] = position;
+            }
+            else {
+                fill(table, start[0], position);
+                start[0] = -1;
+            }
+        });
+        if(start[0] >= 0) {
+            fill(table, start[0], 1L << variablesCount);
+        }
+    }
+
+    // установка в 1 наборов с номерами из [from, to)
+    private static void fill(long[] table, long from, long to) {
+        int first = (int) (from >>> 6);
+        int last = (int) ((to - 1) >>> 6);
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> (63 - ((to - 1) & 63));
+        if(first == last) {
+            table[first] |= firstMask & lastMask;
+            return;
+        }
+        table[first] |= firstMask;
+        Arrays.fill(table, first + 1, last, -1L);
+        table[last] |= lastMask;
+    }
+
+    private BooleanFunction readDnf(int variablesCount) throws IOException {
+        long count = BinaryFormat.readVarint(in);
+        int careBytes = (variablesCount + 7) >>> 3;
+        List<Implicant> implicants = new ArrayList<>((int) Math.min(count, 1 << 16));
+        for(long i = 0; i < count; i++) {
+            long care = 0;
+            for(int b = 0; b < careBytes; b++) {
+                care |= (long) in.readUnsignedByte() << (8 * b);
+            }
+            if((care >>> variablesCount) != 0) {
+                throw new RuntimeException("literal of variable out of range in implicant of " + variablesCount + " variables");
+            }
+            // значения литералов раскладываются по позициям care
+            long values = 0;
+            int packed = 0;
+            int packedCount = 0;
+            for(long rest = care; rest != 0; rest &= rest - 1) {
+                if(packedCount == 0) {
+                    packed = in.readUnsignedByte();
+                    packedCount = 8;
+                }
+                values |= (long) (packed & 1) << Long.numberOfTrailingZeros(rest);
+                packed >>>= 1;
+                packedCount--;
+            }
+            implicants.add(new Implicant(variablesCount, care, values));
+        }
+        return BooleanFunction.of(variablesCount, implicants);
+    }
+}
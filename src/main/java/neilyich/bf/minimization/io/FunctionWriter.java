@@ -0,0 +1,147 @@
+package neilyich.bf.minimization.io;
+
+import neilyich.bf.minimization.BooleanFunction;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// потоковая запись функций в двоичном формате (см. BinaryFormat): заголовок записывается при создании,
+// каждая функция - отдельной записью, поэтому в поток можно писать результаты по мере их получения
+// вектор значений записывается способом с наименьшим размером (упакованные биты, разности номеров единичных
+// или нулевых наборов либо длины серий), ДНФ - масками литералов без разбора и форматирования строк
+public class FunctionWriter implements Closeable, Flushable {
+    // число слов вектора значений, копируемых в буфер за один раз
+    private static final int BUFFER_WORDS = 1 << 12;
+
+    private final DataOutputStream out;
+    private final boolean compress;
+
+    public FunctionWriter(OutputStream out) throws IOException {
+        this(out, true);
+    }
+
+    // compress == false - векторы значений всегда записываются упакованными битами
+    public FunctionWriter(OutputStream out, boolean compress) throws IOException {
+        this.out = new DataOutputStream(out instanceof BufferedOutputStream ? out : new BufferedOutputStream(out));
+        this.compress = compress;
+        this.out.writeInt(BinaryFormat.MAGIC);
+        this.out.writeByte(BinaryFormat.VERSION);
+    }
+
+    // запись вектора значений функции
+    public void writeTable(BooleanFunction f) throws IOException {
+        int variablesCount = f.getVariablesCount();
+        var table = f.toLongArray();
+        int encoding = BinaryFormat.DENSE;
+        long size = BinaryFormat.denseSize(variablesCount);
+        if(compress) {
+            for(int candidate: new int[] {BinaryFormat.ONES, BinaryFormat.ZEROS, BinaryFormat.RUNS}) {
+                long candidateSize = positionsSize(table, variablesCount, candidate, size);
+                if(candidateSize < size) {
+                    encoding = candidate;
+                    size = candidateSize;
+                }
+            }
+        }
+        out.writeByte(BinaryFormat.TABLE);
+        BinaryFormat.writeVarint(out, variablesCount);
+        out.writeByte(encoding);
+        if(encoding == BinaryFormat.DENSE) {
+            writeDense(table, variablesCount);
+        }
+        else {
+            writePositions(table, variablesCount, encoding);
+        }
+    }
+
+    // запись ДНФ функции (слагаемых f.sdnf())
+    public void writeDnf(BooleanFunction f) throws IOException {
+        int variablesCount = f.getVariablesCount();
+        var implicants = f.sdnf();
+        out.writeByte(BinaryFormat.DNF);
+        BinaryFormat.writeVarint(out, variablesCount);
+        BinaryFormat.writeVarint(out, implicants.size());
+        int careBytes = (variablesCount + 7) >>> 3;
+        for(var impl: implicants) {
+            for(int b = 0; b < careBytes; b++) {
+                out.writeByte((int) (impl.careWord(b >>> 3) >>> (8 * (b & 7))));
+            }
+            // значения присутствующих литералов подряд, по 8 в байте
+            int packed = 0;
+            int packedCount = 0;
+            for(int w = 0; w < impl.getWordsCount(); w++) {
+                long values = impl.valuesWord(w);
+                for(long rest = impl.careWord(w); rest != 0; rest &= rest - 1) {
+                    packed |= (int) ((values >>> Long.numberOfTrailingZeros(rest)) & 1) << packedCount;
+                    if(++packedCount == 8) {
+                        out.writeByte(packed);
+                        packed = 0;
+                        packedCount = 0;
+                    }
+                }
+            }
+            if(packedCount > 0) {
+                out.writeByte(packed);
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void writeDense(long[] table, int variablesCount) throws IOException {
+        if(variablesCount < 6) {
+            for(int b = 0; b < BinaryFormat.denseSize(variablesCount); b++) {
+                out.writeByte((int) (table[0] >>> (8 * b)));
+            }
+            return;
+        }
+        var buffer = ByteBuffer.allocate(8 * Math.min(table.length, BUFFER_WORDS)).order(ByteOrder.LITTLE_ENDIAN);
+        for(int from = 0; from < table.length; from += BUFFER_WORDS) {
+            int length = Math.min(BUFFER_WORDS, table.length - from);
+            buffer.clear();
+            buffer.asLongBuffer().put(table, from, length);
+            out.write(buffer.array(), 0, 8 * length);
+        }
+    }
+
+    // размер записи номеров наборов способом encoding (не больше bound: после его превышения подсчет прекращается)
+    private static long positionsSize(long[] table, int variablesCount, int encoding, long bound) {
+        long count = 0;
+        long size = 0;
+        long previous = -1;
+        for(int i = 0; i < table.length && size < bound; i++) {
+            for(long rest = BinaryFormat.positionsWord(table, variablesCount, encoding, i); rest != 0; rest &= rest - 1) {
+                long position = ((long) i << 6) + Long.numberOfTrailingZeros(rest);
+                size += BinaryFormat.varintSize(position - previous - 1);
+                previous = position;
+                count++;
+            }
+        }
+        return size + BinaryFormat.varintSize(count);
+    }
+
+    private void writePositions(long[] table, int variablesCount, int encoding) throws IOException {
+        long count = 0;
+        for(int i = 0; i < table.length; i++) {
+            count += Long.bitCount(BinaryFormat.positionsWord(table, variablesCount, encoding, i));
+        }
+        BinaryFormat.writeVarint(out, count);
+        long previous = -1;
+        for(int i = 0; i < table.length; i++) {
+            for(long rest = BinaryFormat.positionsWord(table, variablesCount, encoding, i); rest != 0; rest &= rest - 1) {
+                long position = ((long) i << 6) + Long.numberOfTrailingZeros(rest);
+                BinaryFormat.writeVarint(out, position - previous - 1);
+                previous = position;
+            }
+        }
+    }
+}
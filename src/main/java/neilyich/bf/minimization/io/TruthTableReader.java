@@ -0,0 +1,270 @@
+package neilyich.bf.minimization.io;
+
+import neilyich.bf.minimization.BooleanFunction;
+import neilyich.bf.minimization.TruthTables;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+// чтение вектора значений БФ из файла, отображенного в память: символы разбираются сразу в упакованный вектор
+// (бит i слова k - значение на наборе 64 * k + i), промежуточные строки не создаются, поэтому вектор функции
+// от 30 переменных читается со скоростью диска, а память занимает только сам упакованный вектор
+// файл отображается частями, поэтому размер файла не ограничен 2 ГБ
+public final class TruthTableReader {
+    // размер отображаемой части файла
+    private static final int CHUNK_SIZE = 1 << 28;
+    // символы '0' и '1' в каждом байте слова
+    private static final long ZEROS = 0x3030303030303030L;
+    private static final long LOW_BITS = 0x0101010101010101L;
+    // умножение на GATHER переносит младшие биты байтов слова (байт j - бит 8j) в старший байт (бит 56 + j)
+    private static final long GATHER = 0x0102040810204080L;
+
+    // формат файла
+    public enum Format {
+        // символы 0 и 1 (пробельные символы пропускаются)
+        ASCII,
+        // шестнадцатеричные цифры, каждая задает 4 значения вектора, старший бит цифры - первое из них
+        // (как если бы 4 символа 0 и 1 были записаны одной цифрой); пробельные символы пропускаются
+        HEX,
+        // упакованные биты без заголовка: бит i байта k - значение на наборе 8 * k + i, размер файла - 2^(n - 3) байт
+        RAW,
+        // список единичных наборов: первое число - число переменных, далее номера наборов, на которых функция
+        // равна 1 (числа разделяются пробельными символами или запятыми)
+        MINTERMS,
+        // двоичный формат FunctionWriter (читается первая функция файла)
+        BINARY
+    }
+
+    private TruthTableReader() {
+    }
+
+    // формат по имени параметра (ascii, hex, raw, minterms или binary)
+    public static Format format(String name) {
+        try {
+            return Format.valueOf(name.toUpperCase(Locale.ROOT));
+        }
+        catch(IllegalArgumentException e) {
+            throw new RuntimeException("Unknown input format: " + name);
+        }
+    }
+
+    // чтение функции из файла заданного формата
+    public static BooleanFunction read(Path path, Format format) throws IOException {
+        if(format == Format.BINARY) {
+            return readBinary(path);
+        }
+        try(var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            switch(format) {
+                case ASCII:
+                    return readAscii(channel, size);
+                case HEX:
+                    return readHex(channel, size);
+                case RAW:
+                    return readRaw(channel, size);
+                case MINTERMS:
+                    return readMinterms(channel, size);
+                default:
+                    throw new RuntimeException("Unknown input format: " + format);
+            }
+        }
+    }
+
+    // вектор из символов 0 и 1: вектор заполняется для наибольшего числа переменных, которое допускает размер
+    // файла, и обрезается после чтения; последовательности из 8 символов 0 и 1 упаковываются одним умножением
+    private static BooleanFunction readAscii(FileChannel channel, long size) throws IOException {
+        long capacity = 1L << maxVariablesCount(size);
+        var table = new long[TruthTables.wordsCount(maxVariablesCount(size))];
+        long count = 0;
+        for(long offset = 0; offset < size; offset += CHUNK_SIZE) {
+            var buffer = map(channel, offset, size).order(ByteOrder.LITTLE_ENDIAN);
+            int limit = buffer.limit();
+            int pos = 0;
+            while(pos < limit) {
+                if(pos + 8 <= limit && (count & 7) == 0) {
+                    long chars = buffer.getLong(pos);
+                    if((chars & ~LOW_BITS) == ZEROS) {
+                        checkLength(count + 8, capacity);
+                        table[(int) (count >>> 6)] |= (((chars & LOW_BITS) * GATHER) >>> 56) << count;
+                        count += 8;
+                        pos += 8;
+                        continue;
+                    }
+                }
+                byte c = buffer.get(pos++);
+                if(c == '0' || c == '1') {
+                    checkLength(count + 1, capacity);
+                    if(c == '1') {
+                        table[(int) (count >>> 6)] |= 1L << count;
+                    }
+                    count++;
+                }
+                else if(!isWhitespace(c)) {
+                    throw new RuntimeException("unexpected symbol: " + (char) c);
+                }
+            }
+        }
+        return function(table, count);
+    }
+
+    private static BooleanFunction readHex(FileChannel channel, long size) throws IOException {
+        long capacity = 1L << maxVariablesCount(4 * size);
+        var table = new long[TruthTables.wordsCount(maxVariablesCount(4 * size))];
+        long count = 0;
+        for(long offset = 0; offset < size; offset += CHUNK_SIZE) {
+            var buffer = map(channel, offset, size);
+            int limit = buffer.limit();
+            for(int pos = 0; pos < limit; pos++) {
+                byte c = buffer.get(pos);
+                int digit = Character.digit(c, 16);
+                if(digit >= 0) {
+                    checkLength(count + 4, capacity);
+                    // первый символ вектора - старший бит цифры
+                    table[(int) (count >>> 6)] |= (long) (Integer.reverse(digit) >>> 28) << count;
+                    count += 4;
+                }
+                else if(!isWhitespace(c)) {
+                    throw new RuntimeException("unexpected symbol: " + (char) c);
+                }
+            }
+        }
+        return function(table, count);
+    }
+
+    private static BooleanFunction readRaw(FileChannel channel, long size) throws IOException {
+        if(size == 0 || (size & (size - 1)) != 0) {
+            throw new RuntimeException("size of packed BF vector is not 2^(n - 3) bytes: " + size);
+        }
+        int variablesCount = Long.numberOfTrailingZeros(size) + 3;
+        if(variablesCount > BooleanFunction.MAX_VARIABLES_COUNT) {
+            throw new RuntimeException("unsupported variables count: " + variablesCount);
+        }
+        var table = new long[TruthTables.wordsCount(variablesCount)];
+        if(size < 8) {
+            var buffer = map(channel, 0, size);
+            for(int i = 0; i < size; i++) {
+                table[0] |= (buffer.get(i) & 0xFFL) << (8 * i);
+            }
+        }
+        else {
+            for(long offset = 0; offset < size; offset += CHUNK_SIZE) {
+                map(channel, offset, size).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer()
+                        .get(table, (int) (offset >>> 3), (int) (Math.min(CHUNK_SIZE, size - offset) >>> 3));
+            }
+        }
+        return new BooleanFunction(variablesCount, table);
+    }
+
+    // список единичных наборов: числа разбираются по цифрам
+    private static BooleanFunction readMinterms(FileChannel channel, long size) throws IOException {
+        var minterms = new Minterms();
+        long number = -1;
+        for(long offset = 0; offset < size; offset += CHUNK_SIZE) {
+            var buffer = map(channel, offset, size);
+            int limit = buffer.limit();
+            for(int pos = 0; pos < limit; pos++) {
+                byte c = buffer.get(pos);
+                if(c >= '0' && c <= '9') {
+                    number = (number < 0 ? 0 : 10 * number) + (c - '0');
+                    if(number > Integer.MAX_VALUE) {
+                        throw new RuntimeException("number is too large at byte " + (offset + pos));
+                    }
+                }
+                else if(isWhitespace(c) || c == ',') {
+                    if(number >= 0) {
+                        minterms.add(number);
+                    }
+                    number = -1;
+                }
+                else {
+                    throw new RuntimeException("unexpected symbol: " + (char) c);
+                }
+            }
+        }
+        if(number >= 0) {
+            minterms.add(number);
+        }
+        return minterms.function();
+    }
+
+    // вектор, заполняемый по списку единичных наборов (первое число списка - число переменных)
+    private static class Minterms {
+        private long[] table;
+        private int variablesCount;
+
+        void add(long number) {
+            if(table == null) {
+                if(number > BooleanFunction.MAX_VARIABLES_COUNT) {
+                    throw new RuntimeException("unsupported variables count: " + number);
+                }
+                variablesCount = (int) number;
+                table = new long[TruthTables.wordsCount(variablesCount)];
+                return;
+            }
+            if(number >= 1L << variablesCount) {
+                throw new RuntimeException("minterm " + number + " of function of " + variablesCount + " variables");
+            }
+            table[(int) (number >>> 6)] |= 1L << number;
+        }
+
+        BooleanFunction function() {
+            if(table == null) {
+                throw new RuntimeException("variables count is missing");
+            }
+            return new BooleanFunction(variablesCount, table);
+        }
+    }
+
+    // первая функция файла в двоичном формате (для записи ДНФ - только вектор значений)
+    private static BooleanFunction readBinary(Path path) throws IOException {
+        try(var reader = new FunctionReader(Files.newInputStream(path))) {
+            var f = reader.read();
+            if(f == null) {
+                throw new RuntimeException("no functions in file: " + path);
+            }
+            return new BooleanFunction(f.getVariablesCount(), f.toLongArray());
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long offset, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(CHUNK_SIZE, size - offset));
+    }
+
+    // наибольшее число переменных функции, вектор которой содержит не более length значений
+    private static int maxVariablesCount(long length) {
+        if(length == 0) {
+            return 0;
+        }
+        return Math.min(BooleanFunction.MAX_VARIABLES_COUNT, 63 - Long.numberOfLeadingZeros(length));
+    }
+
+    // вектор длиннее capacity либо длиннее 2^30, либо его длина не степень двойки (иначе он не поместился бы в файл)
+    private static void checkLength(long length, long capacity) {
+        if(length <= capacity) {
+            return;
+        }
+        if(capacity == 1L << BooleanFunction.MAX_VARIABLES_COUNT) {
+            throw new RuntimeException("BF vector is longer than 2^" + BooleanFunction.MAX_VARIABLES_COUNT);
+        }
+        throw new RuntimeException("length of BF vector is not 2^n: more than " + capacity);
+    }
+
+    // функция по вектору из count значений (вектор может быть длиннее, если файл содержит пробельные символы)
+    private static BooleanFunction function(long[] table, long count) {
+        if(count == 0 || (count & (count - 1)) != 0) {
+            throw new RuntimeException("length of BF vector is not 2^n: " + count);
+        }
+        int variablesCount = Long.numberOfTrailingZeros(count);
+        return new BooleanFunction(variablesCount, Arrays.copyOf(table, TruthTables.wordsCount(variablesCount)));
+    }
+
+    private static boolean isWhitespace(byte c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+}
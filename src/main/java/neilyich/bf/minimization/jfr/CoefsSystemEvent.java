@@ -0,0 +1,20 @@
+package neilyich.bf.minimization.jfr;
+
+import jdk.jfr.*;
+
+// система уравнений метода неопределенных коэффициентов
+@Name("neilyich.bf.CoefsSystem")
+@Label("Coefficients System")
+@Category({"Boolean Functions", "Minimization"})
+class CoefsSystemEvent extends Event {
+    @Label("Minimizer")
+    String minimizer;
+    @Label("Lines")
+    int lines;
+    @Label("Coefficients")
+    int coefs;
+    @Label("Reduced Lines")
+    int reducedLines;
+    @Label("Reduced Coefficients")
+    int reducedCoefs;
+}
@@ -0,0 +1,14 @@
+package neilyich.bf.minimization.jfr;
+
+import jdk.jfr.*;
+
+// точный поиск покрытия циклического ядра таблицы
+@Name("neilyich.bf.CoverSearch")
+@Label("Cover Search")
+@Category({"Boolean Functions", "Minimization"})
+class CoverSearchEvent extends Event {
+    @Label("Minimizer")
+    String minimizer;
+    @Label("Nodes Count")
+    long nodesCount;
+}
@@ -0,0 +1,20 @@
+package neilyich.bf.minimization.jfr;
+
+import jdk.jfr.*;
+
+// сокращение таблицы покрытия до циклического ядра
+@Name("neilyich.bf.CoverageTable")
+@Label("Coverage Table")
+@Category({"Boolean Functions", "Minimization"})
+class CoverageTableEvent extends Event {
+    @Label("Minimizer")
+    String minimizer;
+    @Label("Rows Before")
+    int rowsBefore;
+    @Label("Columns Before")
+    int columnsBefore;
+    @Label("Rows After")
+    int rowsAfter;
+    @Label("Columns After")
+    int columnsAfter;
+}
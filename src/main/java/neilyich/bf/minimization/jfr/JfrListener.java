@@ -0,0 +1,123 @@
+package neilyich.bf.minimization.jfr;
+
+import jdk.jfr.FlightRecorder;
+import neilyich.bf.minimization.BooleanFunction;
+import neilyich.bf.minimization.MinimizationLimits;
+import neilyich.bf.minimization.MinimizationListener;
+
+// передача событий минимизации в JDK Flight Recorder (по событию на запуск, этап, стадию склейки и т.д.)
+// если событие отключено в настройках записи, оно не создается
+// экземпляр хранит событие текущего запуска, поэтому для каждой минимизации создается свой слушатель
+public class JfrListener implements MinimizationListener {
+    private final String minimizer;
+    private MinimizationEvent current;
+
+    public JfrListener(String minimizer) {
+        this.minimizer = minimizer;
+    }
+
+    // слушатель для запуска минимизации: пока Flight Recorder не запущен (ключом -XX:StartFlightRecording
+    // или командой JFR.start), события не передаются, и классы событий не загружаются
+    public static MinimizationListener of(String minimizer) {
+        return FlightRecorder.isInitialized() ? new JfrListener(minimizer) : MinimizationListener.NONE;
+    }
+
+    @Override
+    public void onStart(BooleanFunction f) {
+        var event = new MinimizationEvent();
+        if(!event.isEnabled()) {
+            return;
+        }
+        event.minimizer = minimizer;
+        event.variablesCount = f.getVariablesCount();
+        event.onesCount = f.onesCount();
+        event.begin();
+        current = event;
+    }
+
+    @Override
+    public void onPhase(String phase, long nanos) {
+        var event = new PhaseEvent();
+        if(event.isEnabled()) {
+            event.minimizer = minimizer;
+            event.phase = phase;
+            event.time = nanos;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onStage(int stage, int implicantsCount, int mergedCount, int primesCount) {
+        var event = new StageEvent();
+        if(event.isEnabled()) {
+            event.minimizer = minimizer;
+            event.stage = stage;
+            event.implicantsCount = implicantsCount;
+            event.mergedCount = mergedCount;
+            event.primesCount = primesCount;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onCoverageTable(int rowsBefore, int columnsBefore, int rowsAfter, int columnsAfter) {
+        var event = new CoverageTableEvent();
+        if(event.isEnabled()) {
+            event.minimizer = minimizer;
+            event.rowsBefore = rowsBefore;
+            event.columnsBefore = columnsBefore;
+            event.rowsAfter = rowsAfter;
+            event.columnsAfter = columnsAfter;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onCoverSearch(long nodesCount) {
+        var event = new CoverSearchEvent();
+        if(event.isEnabled()) {
+            event.minimizer = minimizer;
+            event.nodesCount = nodesCount;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onCoefsSystem(int lines, int coefs, int reducedLines, int reducedCoefs) {
+        var event = new CoefsSystemEvent();
+        if(event.isEnabled()) {
+            event.minimizer = minimizer;
+            event.lines = lines;
+            event.coefs = coefs;
+            event.reducedLines = reducedLines;
+            event.reducedCoefs = reducedCoefs;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onLimitExceeded(MinimizationLimits.Limit limit, String phase) {
+        var event = new LimitExceededEvent();
+        if(event.isEnabled()) {
+            event.minimizer = minimizer;
+            event.limit = limit.name();
+            event.phase = phase;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void onFinish(BooleanFunction result) {
+        var event = current;
+        current = null;
+        if(event == null) {
+            return;
+        }
+        event.end();
+        if(event.shouldCommit()) {
+            event.termsCount = result.sdnf().size();
+            event.literalsCount = result.weight();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package neilyich.bf.minimization.jfr;
+
+import jdk.jfr.*;
+
+// минимизация остановлена нарушением ограничения (срока, отмены или бюджета памяти)
+@Name("neilyich.bf.LimitExceeded")
+@Label("Limit Exceeded")
+@Category({"Boolean Functions", "Minimization"})
+class LimitExceededEvent extends Event {
+    @Label("Minimizer")
+    String minimizer;
+    @Label("Limit")
+    String limit;
+    @Label("Phase")
+    String phase;
+}
@@ -0,0 +1,20 @@
+package neilyich.bf.minimization.jfr;
+
+import jdk.jfr.*;
+
+// минимизация одной функции (длительность события - время минимизации)
+@Name("neilyich.bf.Minimization")
+@Label("Minimization")
+@Category({"Boolean Functions", "Minimization"})
+class MinimizationEvent extends Event {
+    @Label("Minimizer")
+    String minimizer;
+    @Label("Variables Count")
+    int variablesCount;
+    @Label("Ones Count")
+    int onesCount;
+    @Label("Terms Count")
+    int termsCount;
+    @Label("Literals Count")
+    int literalsCount;
+}
@@ -0,0 +1,17 @@
+package neilyich.bf.minimization.jfr;
+
+import jdk.jfr.*;
+
+// завершение этапа алгоритма минимизации
+@Name("neilyich.bf.MinimizationPhase")
+@Label("Minimization Phase")
+@Category({"Boolean Functions", "Minimization"})
+class PhaseEvent extends Event {
+    @Label("Minimizer")
+    String minimizer;
+    @Label("Phase")
+    String phase;
+    @Label("Phase Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long time;
+}
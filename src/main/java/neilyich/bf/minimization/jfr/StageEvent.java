@@ -0,0 +1,20 @@
+package neilyich.bf.minimization.jfr;
+
+import jdk.jfr.*;
+
+// стадия склейки алгоритма Квайна МакКласски
+@Name("neilyich.bf.MergeStage")
+@Label("Merge Stage")
+@Category({"Boolean Functions", "Minimization"})
+class StageEvent extends Event {
+    @Label("Minimizer")
+    String minimizer;
+    @Label("Stage")
+    int stage;
+    @Label("Implicants Count")
+    int implicantsCount;
+    @Label("Merged Count")
+    int mergedCount;
+    @Label("New Primes Count")
+    int primesCount;
+}
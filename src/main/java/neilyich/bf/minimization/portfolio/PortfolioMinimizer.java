@@ -0,0 +1,222 @@
+package neilyich.bf.minimization.portfolio;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import neilyich.bf.minimization.BooleanFunction;
+import neilyich.bf.minimization.CancellationToken;
+import neilyich.bf.minimization.CompositeListener;
+import neilyich.bf.minimization.MinimizationLimits;
+import neilyich.bf.minimization.MinimizationListener;
+import neilyich.bf.minimization.Minimizer;
+import neilyich.bf.minimization.bdd.IsopMinimizer;
+import neilyich.bf.minimization.espresso.EspressoMinimizer;
+import neilyich.bf.minimization.jfr.JfrListener;
+import neilyich.bf.minimization.quine.mccluskey.QuineMinimizer;
+import neilyich.bf.minimization.undetermined.coefs.CoefsMinimizer;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+// одновременная минимизация функции несколькими алгоритмами (каждый в своем потоке) с выбором лучшего
+// результата по BooleanFunction.compareSame
+// как только точный алгоритм завершается без нарушения ограничений, его результат минимален, поэтому остальные
+// алгоритмы отменяются (через признак отмены в их ограничениях) и их окончания не ждут; при нарушении
+// ограничений портфеля (срок, отмена) алгоритмы останавливаются сами, и после короткого ожидания выбирается
+// лучший из полученных к этому моменту результатов (если результатов еще нет - ждется первый)
+// слушатель получает события только победившего алгоритма (подробный ход работы алгоритмов не передается,
+// вместо него выводится сводка по всем алгоритмам), в JFR события каждого алгоритма записываются под его именем
+// если результат не доказан минимальным, слушатель получает onLimitExceeded с этапом "portfolio"
+public class PortfolioMinimizer implements Minimizer {
+    // ожидание результатов остальных алгоритмов после нарушения ограничения портфеля
+    private static final long GRACE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    // период проверки ограничений портфеля во время ожидания результатов
+    private static final long POLL_MILLIS = 10;
+    // потоки алгоритмов по умолчанию (потоки-демоны, поэтому отмененные алгоритмы не мешают завершению программы;
+    // проект собирается для Java 11, поэтому используются обычные потоки платформы, а не виртуальные)
+    private static final ExecutorService DEFAULT_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        var thread = new Thread(runnable, "portfolio-minimizer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // алгоритм портфеля: exact - алгоритм точный, т.е. его результат, полученный без нарушения ограничений, минимален
+    // в порядке BooleanFunction.compareSame (сначала число импликант, затем число литералов); алгоритм, минимизирующий
+    // только число литералов, точным не является, иначе портфель может объявить минимальным худший результат
+    @Getter
+    @RequiredArgsConstructor
+    public static class Strategy {
+        private final String name;
+        // для каждой минимизации создается свой экземпляр алгоритма (минимизаторы хранят состояние между вызовами)
+        private final Supplier<Minimizer> factory;
+        private final boolean exact;
+    }
+
+    private final List<Strategy> strategies;
+    private final ExecutorService executor;
+
+    public PortfolioMinimizer() {
+        this(defaultStrategies());
+    }
+
+    public PortfolioMinimizer(List<Strategy> strategies) {
+        this(strategies, DEFAULT_EXECUTOR);
+    }
+
+    // в executor должно хватать потоков на все алгоритмы портфеля одновременно
+    public PortfolioMinimizer(List<Strategy> strategies, ExecutorService executor) {
+        if(strategies.isEmpty()) {
+            throw new RuntimeException("portfolio must contain at least one strategy");
+        }
+        this.strategies = List.copyOf(strategies);
+        this.executor = executor;
+    }
+
+    // точные алгоритмы Квайна МакКласски (с явным и неявным построением простых импликант) и неопределенных
+    // коэффициентов, эвристический Espresso и неизбыточная ДНФ по BDD
+    public static List<Strategy> defaultStrategies() {
+        return List.of(
+                new Strategy("quine", QuineMinimizer::new, true),
+                new Strategy("quine-zdd", () -> new QuineMinimizer(ForkJoinPool.commonPool(), true), true),
+                new Strategy("coefs", CoefsMinimizer::new, true),
+                new Strategy("espresso", EspressoMinimizer::new, false),
+                new Strategy("isop", IsopMinimizer::new, false));
+    }
+
+    // запуск алгоритма портфеля
+    private static class Run {
+        private final Strategy strategy;
+        private final CancellationToken token = new CancellationToken();
+        private final RecordingListener recorder = new RecordingListener();
+        private BooleanFunction result;
+        private Throwable failure;
+        private long nanos;
+        // результат получен портфелем (поля выше заполнены)
+        private boolean finished;
+
+        Run(Strategy strategy) {
+            this.strategy = strategy;
+        }
+
+        // выполняется в потоке алгоритма, ошибка алгоритма не прерывает остальные
+        Run execute(BooleanFunction f, MinimizationLimits limits) {
+            long start = System.nanoTime();
+            try {
+                result = strategy.factory.get().minimize(f,
+                        new CompositeListener(recorder, JfrListener.of(strategy.name)), limits);
+            }
+            catch(RuntimeException | Error e) {
+                failure = e;
+            }
+            nanos = System.nanoTime() - start;
+            return this;
+        }
+
+        // true - результат доказанно минимален
+        boolean isProven() {
+            return result != null && strategy.exact && recorder.getExceededLimit() == null;
+        }
+
+        @Override
+        public String toString() {
+            if(!finished) {
+                return strategy.name + ": cancelled";
+            }
+            var time = String.format(Locale.ROOT, "%.3f ms", nanos / 1e6);
+            if(result == null) {
+                return strategy.name + ": failed in " + time + ": " + failure;
+            }
+            var s = strategy.name + ": " + result.sdnf().size() + " implicants, weight " + result.weight() + " in " + time;
+            return recorder.getExceededLimit() == null ? s : s + " (stopped by limit " + recorder.getExceededLimit() + ")";
+        }
+    }
+
+    // получение минимизированной БФ
+    // (при ошибке всех алгоритмов выбрасывается исключение с ошибкой первого из них)
+    public BooleanFunction minimize(BooleanFunction f, MinimizationListener listener, MinimizationLimits limits) {
+        listener.onStart(f);
+        var completion = new ExecutorCompletionService<Run>(executor);
+        List<Run> runs = new ArrayList<>(strategies.size());
+        for(var strategy: strategies) {
+            var run = new Run(strategy);
+            runs.add(run);
+            var strategyLimits = limits.withAdditionalCancellation(run.token);
+            // каждый алгоритм получает свою копию, так как СДНФ функции строится при первом обращении
+            var copy = new BooleanFunction(f.getVariablesCount(), f.toLongArray());
+            completion.submit(() -> run.execute(copy, strategyLimits));
+        }
+        Run best = null;
+        boolean proven = false;
+        MinimizationLimits.Limit stopped = null;
+        long stoppedAt = 0;
+        try {
+            for(int pending = runs.size(); pending > 0 && !proven; ) {
+                var done = completion.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if(done != null) {
+                    pending--;
+                    var run = done.get();
+                    run.finished = true;
+                    if(run.result != null && (best == null || run.result.compareSame(best.result) < 0)) {
+                        best = run;
+                    }
+                    proven = run.isProven();
+                }
+                else if(stopped == null) {
+                    // алгоритмы проверяют те же ограничения, поэтому останавливаются сами
+                    stopped = limits.check();
+                    stoppedAt = System.nanoTime();
+                }
+                else if(best != null && System.nanoTime() - stoppedAt >= GRACE_NANOS) {
+                    break;
+                }
+            }
+        }
+        catch(InterruptedException e) {
+            cancel(runs);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("portfolio minimization interrupted", e);
+        }
+        catch(ExecutionException e) {
+            // ошибки алгоритмов перехватываются в Run.execute
+            cancel(runs);
+            throw new RuntimeException(e.getCause());
+        }
+        cancel(runs);
+        if(best == null) {
+            throw new RuntimeException("all portfolio strategies failed", runs.get(0).failure);
+        }
+        var winner = best;
+        listener.onTrace("Portfolio:", () -> {
+            var builder = new StringBuilder();
+            for(var run: runs) {
+                builder.append(run).append('\n');
+            }
+            return builder.append("best: ").append(winner.strategy.name).append('\n').toString();
+        });
+        winner.recorder.replay(listener);
+        if(!proven && winner.recorder.getExceededLimit() == null) {
+            var limit = stopped != null ? stopped : exactLimit(runs);
+            if(limit != null) {
+                listener.onLimitExceeded(limit, "portfolio");
+            }
+        }
+        listener.onFinish(winner.result);
+        return winner.result;
+    }
+
+    // ограничение, остановившее точный алгоритм (null - ни один точный алгоритм не был остановлен)
+    private static MinimizationLimits.Limit exactLimit(List<Run> runs) {
+        for(var run: runs) {
+            if(run.finished && run.strategy.exact && run.recorder.getExceededLimit() != null) {
+                return run.recorder.getExceededLimit();
+            }
+        }
+        return null;
+    }
+
+    private static void cancel(List<Run> runs) {
+        for(var run: runs) {
+            run.token.cancel();
+        }
+    }
+}
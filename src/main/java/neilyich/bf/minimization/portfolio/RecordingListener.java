@@ -0,0 +1,63 @@
+package neilyich.bf.minimization.portfolio;
+
+import neilyich.bf.minimization.BooleanFunction;
+import neilyich.bf.minimization.MinimizationLimits;
+import neilyich.bf.minimization.MinimizationListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// запоминание событий запуска алгоритма портфеля, чтобы передать слушателю только события победившего алгоритма
+// (подробный ход работы не запоминается, начало и окончание минимизации слушатель получает от портфеля)
+class RecordingListener implements MinimizationListener {
+    private final List<Consumer<MinimizationListener>> events = new ArrayList<>();
+    private volatile MinimizationLimits.Limit exceededLimit;
+
+    // нарушенное ограничение (null - алгоритм выполнен полностью)
+    MinimizationLimits.Limit getExceededLimit() {
+        return exceededLimit;
+    }
+
+    // передача запомненных событий слушателю (вызывается после окончания запуска)
+    void replay(MinimizationListener listener) {
+        for(var event: events) {
+            event.accept(listener);
+        }
+    }
+
+    @Override
+    public void onPhase(String phase, long nanos) {
+        events.add(l -> l.onPhase(phase, nanos));
+    }
+
+    @Override
+    public void onStage(int stage, int implicantsCount, int mergedCount, int primesCount) {
+        events.add(l -> l.onStage(stage, implicantsCount, mergedCount, primesCount));
+    }
+
+    @Override
+    public void onCoverageTable(int rowsBefore, int columnsBefore, int rowsAfter, int columnsAfter) {
+        events.add(l -> l.onCoverageTable(rowsBefore, columnsBefore, rowsAfter, columnsAfter));
+    }
+
+    @Override
+    public void onCoverSearch(long nodesCount) {
+        events.add(l -> l.onCoverSearch(nodesCount));
+    }
+
+    @Override
+    public void onCoefsSystem(int lines, int coefs, int reducedLines, int reducedCoefs) {
+        events.add(l -> l.onCoefsSystem(lines, coefs, reducedLines, reducedCoefs));
+    }
+
+    @Override
+    public void onLimitExceeded(MinimizationLimits.Limit limit, String phase) {
+        exceededLimit = limit;
+        events.add(l -> l.onLimitExceeded(limit, phase));
+    }
+
+    @Override
+    public void onFinish(BooleanFunction result) {
+    }
+}
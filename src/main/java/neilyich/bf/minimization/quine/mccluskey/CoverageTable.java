@@ -2,19 +2,22 @@ package neilyich.bf.minimization.quine.mccluskey;
 
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import neilyich.bf.minimization.BooleanFunction;
 import neilyich.bf.minimization.Implicant;
+import neilyich.bf.minimization.MinimizationLimits;
+import neilyich.bf.minimization.MinimizationListener;
+import neilyich.bf.minimization.cover.CoverSolver;
 
 import java.util.*;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 // реализация логики работы таблицы покрытия
 public class CoverageTable {
     private final List<Implicant> intersected;
     private final List<Implicant> sdnf;
 
-    private final Map<Integer, boolean[]> table;
-
+    // при сокращении таблицы ограничения проверяются через каждые CHECK_INTERVAL_MASK + 1 строк или столбцов
+    private static final int CHECK_INTERVAL_MASK = 63;
     private static final String verticalSeparator = " | ";
     private static final String horizontalSeparator = "-";
     private static final String cornerSeparator = "+";
@@ -22,6 +25,12 @@ public class CoverageTable {
     private final Set<Column> columns;
     private final Set<Row> rows;
 
+    // результат сокращения таблицы при последнем вычислении минимального покрытия
+    @Getter
+    private TableReduction reduction;
+    // ограничения текущего вычисления покрытия (сокращение таблицы прекращается при их нарушении)
+    private MinimizationLimits limits = MinimizationLimits.NONE;
+
     // столбец таблицы (содержит строки, которые в данном столбце имеют метку)
     @Getter
     @RequiredArgsConstructor
@@ -66,61 +75,110 @@ public class CoverageTable {
             }
             rows.add(row);
         }
-        table = new HashMap<>(sdnf.size());
-        for (int i = 0; i < sdnf.size(); i++) {
-            var implicant = sdnf.get(i);
-            var column = new boolean[intersected.size()];
-            table.put(i, column);
-            for (int k = 0; k < intersected.size(); k++) {
-                var term = intersected.get(k);
-                column[k] = term.covers(implicant);
+    }
+
+    // построение таблицы по простым импликантам, которые перебираются один раз (например, из ZDD), и вектору
+    // значений функции: для каждой импликанты перебираются только покрываемые ей наборы (до 31 переменной)
+    public CoverageTable(Iterable<Implicant> primes, BooleanFunction f) {
+        int variablesCount = f.getVariablesCount();
+        var ones = f.getOnes();
+        sdnf = new ArrayList<>(ones.length);
+        List<Column> columnsList = new ArrayList<>(ones.length);
+        for(int i = 0; i < ones.length; i++) {
+            sdnf.add(new Implicant(variablesCount, ones[i]));
+            columnsList.add(new Column(i));
+        }
+        columns = new HashSet<>(columnsList);
+        intersected = new ArrayList<>();
+        rows = new HashSet<>();
+        int full = variablesCount == 0 ? 0 : -1 >>> (32 - variablesCount);
+        for(var impl: primes) {
+            var row = new Row(intersected.size());
+            intersected.add(impl);
+            int free = variablesCount == 0 ? 0 : ~(int) impl.careWord(0) & full;
+            int base = variablesCount == 0 ? 0 : (int) impl.valuesWord(0);
+            for(int sub = free; ; sub = (sub - 1) & free) {
+                var col = columnsList.get(Arrays.binarySearch(ones, base | sub));
+                row.containedBy.add(col);
+                col.ones.add(row);
+                if(sub == 0) {
+                    break;
+                }
             }
+            rows.add(row);
         }
     }
 
-    // вычисление минимального покрытия таблицы
+    // вычисление минимального покрытия таблицы (минимизируется число импликант, затем число литералов)
+    // таблица сначала сокращается до циклического ядра, точный поиск выполняется только для ядра
     public List<Implicant> calcMinCoverage() {
+        return calcMinCoverage(MinimizationListener.NONE, MinimizationLimits.NONE);
+    }
+
+    // вычисление минимального покрытия с выводом таблиц слушателю
+    // (при нарушении ограничения во время поиска покрытия ядра возвращается лучшее найденное покрытие)
+    public List<Implicant> calcMinCoverage(MinimizationListener listener, MinimizationLimits limits) {
         if(intersected.size() == 0) {
             return new ArrayList<>();
         }
-        List<Set<Implicant>> terms = new ArrayList<>(columns.size());
-        int varsCount = rows.size();
-        for(var col: columns) {
-            Set<Implicant> term = new HashSet<>(col.ones.size());
-            for(var r: col.ones) {
-                var impl = new Implicant(varsCount);
-                impl.set(r.number, true);
-                term.add(impl);
+        this.limits = limits;
+        listener.onTrace("Calculating minimal coverage for table:", () -> {
+            List<Integer> all = new ArrayList<>(intersected.size());
+            for (int i = 0; i < intersected.size(); i++) {
+                all.add(i);
             }
-            terms.add(term);
+            return renderTable(all);
+        });
+        Map<Row, Set<Column>> rowColumns = new HashMap<>(rows.size());
+        for(var row: rows) {
+            rowColumns.put(row, new HashSet<>(row.containedBy));
         }
-        List<Integer> all = new ArrayList<>(intersected.size());
-        for (int i = 0; i < intersected.size(); i++) {
-            all.add(i);
+        Map<Column, Set<Row>> columnRows = new HashMap<>(columns.size());
+        for(var col: columns) {
+            columnRows.put(col, new HashSet<>(col.ones));
         }
-        log("Calculating minimal coverage for table:");
-        printTable(all);
-        var coverages = Implicant.multAll(terms);
-        var it = coverages.iterator();
-        var minCoverage = it.next();
-        int minWeight = calcWeight(minCoverage);
-        while (it.hasNext()) {
-            var cov = it.next();
-
-            int w = calcWeight(cov);
-            if(w < minWeight) {
-                minCoverage = cov;
-                minWeight = w;
-            }
+        long start = System.nanoTime();
+        List<Integer> usedRows = new ArrayList<>();
+        for(var row: reduce(rowColumns, columnRows)) {
+            usedRows.add(row.number);
+        }
+        listener.onPhase("reduce", System.nanoTime() - start);
+        listener.onCoverageTable(reduction.getRowsBefore(), reduction.getColumnsBefore(),
+                reduction.getRowsAfter(), reduction.getColumnsAfter());
+        // если сокращение прервано, поиск покрытия ядра сразу остановится на жадном покрытии
+        var reduceExceeded = limits.check();
+        if(reduceExceeded != null) {
+            listener.onLimitExceeded(reduceExceeded, "reduce");
         }
-        List<Integer> usedRows = new ArrayList<>(minCoverage.getWeight());
-        for (int i = 0; i < varsCount; i++) {
-            if (minCoverage.get(i) != null && minCoverage.get(i)) {
-                usedRows.add(i);
+        if(listener.isTracing()) {
+            listener.onTrace("Reduced table to cyclic core: " + reduction, () -> "");
+        }
+        List<Row> coreRows = new ArrayList<>(rowColumns.keySet());
+        if(!columnRows.isEmpty()) {
+            Map<Row, Integer> coreNumbers = new HashMap<>(coreRows.size());
+            long[] costs = new long[coreRows.size()];
+            for (int i = 0; i < costs.length; i++) {
+                coreNumbers.put(coreRows.get(i), i);
+                costs[i] = cost(coreRows.get(i));
+            }
+            int[][] coreColumns = new int[columnRows.size()][];
+            int c = 0;
+            for(var colRows: columnRows.values()) {
+                coreColumns[c++] = colRows.stream().mapToInt(coreNumbers::get).toArray();
+            }
+            start = System.nanoTime();
+            var solver = new CoverSolver(costs, coreColumns);
+            for(int r: solver.solve(limits)) {
+                usedRows.add(coreRows.get(r).number);
+            }
+            listener.onPhase("cover search", System.nanoTime() - start);
+            listener.onCoverSearch(solver.getNodesCount());
+            if(solver.getExceededLimit() != null && reduceExceeded == null) {
+                listener.onLimitExceeded(solver.getExceededLimit(), "cover search");
             }
         }
-        log("Found minimal coverage (", usedRows.size(), " rows):");
-        printTable(usedRows);
+        usedRows.sort(Integer::compare);
+        listener.onTrace("Found minimal coverage (" + usedRows.size() + " rows):", () -> renderTable(usedRows));
         List<Implicant> minSdnf = new ArrayList<>(usedRows.size());
         for(var r: usedRows) {
             minSdnf.add(intersected.get(r));
@@ -128,29 +186,144 @@ public class CoverageTable {
         return minSdnf;
     }
 
-    // вывод таблицы на экран
-    private void printTable(List<Integer> usedRows) {
+    // стоимость строки выбрана так, чтобы сначала минимизировалось число импликант покрытия, а затем число литералов
+    // (как в методе неопределенных коэффициентов): стоимость импликанты больше суммы литералов всех строк таблицы
+    private long cost(Row row) {
+        var impl = intersected.get(row.number);
+        return (long) intersected.size() * impl.getVariablesCount() + 1 + impl.literalsCount();
+    }
+
+    // сокращение таблицы до циклического ядра: правила применяются, пока удаляют хотя бы одну строку или столбец
+    // возвращает выбранные существенные строки, в переданных отображениях остается ядро таблицы
+    // (при нарушении ограничений сокращение прекращается, оставшаяся таблица может быть больше ядра)
+    private List<Row> reduce(Map<Row, Set<Column>> rowColumns, Map<Column, Set<Row>> columnRows) {
+        reduction = new TableReduction(rowColumns.size(), columnRows.size());
+        List<Row> essential = new ArrayList<>();
+        boolean changed = true;
+        while(changed && limits.check() == null) {
+            changed = selectEssentialRows(rowColumns, columnRows, essential);
+            changed |= removeDominatedColumns(rowColumns, columnRows);
+            changed |= removeDominatedRows(rowColumns, columnRows);
+        }
+        reduction.rowsAfter = rowColumns.size();
+        reduction.columnsAfter = columnRows.size();
+        return essential;
+    }
+
+    // выбор строк, которые являются единственными в каком-либо столбце (существенные импликанты)
+    private boolean selectEssentialRows(Map<Row, Set<Column>> rowColumns, Map<Column, Set<Row>> columnRows, List<Row> essential) {
+        boolean changed = false;
+        for(var col: new ArrayList<>(columnRows.keySet())) {
+            var colRows = columnRows.get(col);
+            if(colRows == null || colRows.size() != 1) {
+                continue;
+            }
+            var row = colRows.iterator().next();
+            essential.add(row);
+            reduction.essentialRows++;
+            for(var covered: new ArrayList<>(rowColumns.get(row))) {
+                removeColumn(covered, rowColumns, columnRows);
+                reduction.coveredColumns++;
+            }
+            removeRow(row, rowColumns, columnRows);
+            changed = true;
+        }
+        return changed;
+    }
+
+    // удаление столбцов, строки которых включают все строки другого столбца (он будет покрыт раньше)
+    private boolean removeDominatedColumns(Map<Row, Set<Column>> rowColumns, Map<Column, Set<Row>> columnRows) {
+        List<Column> sorted = new ArrayList<>(columnRows.keySet());
+        sorted.sort(Comparator.comparingInt((Column col) -> columnRows.get(col).size()).thenComparingInt(Column::getNumber));
+        Set<Column> dominated = new HashSet<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            if((i & CHECK_INTERVAL_MASK) == 0 && limits.check() != null) {
+                break;
+            }
+            var small = sorted.get(i);
+            if(dominated.contains(small)) {
+                continue;
+            }
+            var smallRows = columnRows.get(small);
+            for (int j = i + 1; j < sorted.size(); j++) {
+                var big = sorted.get(j);
+                if(!dominated.contains(big) && columnRows.get(big).containsAll(smallRows)) {
+                    dominated.add(big);
+                }
+            }
+        }
+        for(var col: dominated) {
+            removeColumn(col, rowColumns, columnRows);
+        }
+        reduction.dominatedColumns += dominated.size();
+        return !dominated.isEmpty();
+    }
+
+    // удаление строк, столбцы которых являются подмножеством столбцов другой не более дорогой строки
+    // (из одинаковых строк одинаковой стоимости остается строка с меньшим номером)
+    private boolean removeDominatedRows(Map<Row, Set<Column>> rowColumns, Map<Column, Set<Row>> columnRows) {
+        List<Row> sorted = new ArrayList<>(rowColumns.keySet());
+        sorted.sort(Comparator.comparingInt((Row row) -> -rowColumns.get(row).size())
+                .thenComparingLong(this::cost)
+                .thenComparingInt(Row::getNumber));
+        Set<Row> dominated = new HashSet<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            if((i & CHECK_INTERVAL_MASK) == 0 && limits.check() != null) {
+                break;
+            }
+            var row = sorted.get(i);
+            var rowCols = rowColumns.get(row);
+            if(rowCols.isEmpty()) {
+                dominated.add(row);
+                continue;
+            }
+            for (int j = 0; j < i; j++) {
+                var other = sorted.get(j);
+                if(!dominated.contains(other) && cost(other) <= cost(row) && rowColumns.get(other).containsAll(rowCols)) {
+                    dominated.add(row);
+                    break;
+                }
+            }
+        }
+        for(var row: dominated) {
+            removeRow(row, rowColumns, columnRows);
+        }
+        reduction.dominatedRows += dominated.size();
+        return !dominated.isEmpty();
+    }
+
+    private static void removeColumn(Column col, Map<Row, Set<Column>> rowColumns, Map<Column, Set<Row>> columnRows) {
+        for(var row: columnRows.remove(col)) {
+            rowColumns.get(row).remove(col);
+        }
+    }
+
+    private static void removeRow(Row row, Map<Row, Set<Column>> rowColumns, Map<Column, Set<Row>> columnRows) {
+        for(var col: rowColumns.remove(row)) {
+            columnRows.get(col).remove(row);
+        }
+    }
+
+    // таблица покрытия из заданных строк в текстовом виде
+    private String renderTable(List<Integer> usedRows) {
         if(usedRows.isEmpty()) {
-            System.out.println("--------");
-            return;
+            return "--------";
         }
         int maxRow = usedRows.stream().max(Integer::compareTo).get();
         int numsWidth = (int) Math.log10(maxRow + 1) + 1;
         var builder = new StringBuilder();
         var implLength = intersected.get(0).toBinaryString().length();
         if(implLength == 0) {
-            System.out.println("--------");
-            return;
+            return "--------";
         }
-        int columnsCount = table.size();
-        List<Integer> columnsNums = table.keySet().stream().sorted(Integer::compare).collect(Collectors.toList());
+        int columnsCount = sdnf.size();
         Supplier<StringBuilder> printRow = () -> builder.append(" ").append(cornerSeparator)
                 .append(horizontalSeparator.repeat((columnsCount + 1) * (implLength + verticalSeparator.length()) + numsWidth + verticalSeparator.length() - 1))
                 .append(cornerSeparator).append('\n');
         printRow.get();
         builder.append(verticalSeparator).append(" ".repeat(numsWidth)).append(verticalSeparator).append(" ".repeat(implLength)).append(verticalSeparator);
-        for(int col: columnsNums) {
-            builder.append(sdnf.get(col).toBinaryString()).append(verticalSeparator);
+        for(var col: sdnf) {
+            builder.append(col.toBinaryString()).append(verticalSeparator);
         }
         builder.append('\n');
         printRow.get();
@@ -160,36 +333,13 @@ public class CoverageTable {
                     .append(row + 1).append(verticalSeparator)
                     .append(intersected.get(row).toBinaryString())
                     .append(verticalSeparator);
-            for (int col : columnsNums) {
-                boolean f = table.get(col)[row];
+            for (var col : sdnf) {
+                boolean f = intersected.get(row).covers(col);
                 builder.append(f ? "V" : " ").append(" ".repeat(implLength - 1)).append(verticalSeparator);
             }
             builder.append('\n');
         }
         printRow.get();
-        System.out.print(builder.toString());
-    }
-
-    private static <T> void log(T t) {
-        System.out.println(t);
-    }
-
-    private static void log(Object... args) {
-        for(var o: args) {
-            System.out.print(o);
-        }
-        System.out.println();
-    }
-
-    // подсчет веса полученного покрытия таблицы
-    private int calcWeight(Implicant tableCoverage) {
-        int varsCount = rows.size();
-        int w = 0;
-        for (int i = 0; i < varsCount; i++) {
-            if(tableCoverage.get(i) != null && tableCoverage.get(i)) {
-                w += intersected.get(i).literalsCount();
-            }
-        }
-        return w;
+        return builder.toString();
     }
 }
@@ -0,0 +1,277 @@
+package neilyich.bf.minimization.quine.mccluskey;
+
+import neilyich.bf.minimization.BooleanFunction;
+import neilyich.bf.minimization.Implicant;
+import neilyich.bf.minimization.MinimizationLimits;
+import neilyich.bf.minimization.MinimizationListener;
+import neilyich.bf.minimization.TruthTables;
+import neilyich.bf.minimization.bdd.Bdd;
+import neilyich.bf.minimization.bdd.Zdd;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+
+// повторная минимизация после изменения небольшого числа значений функции
+// хранятся вектор значений, все простые импликанты (с индексом: единичный набор -> покрывающие его импликанты)
+// и минимальное покрытие. при изменении набора m пересчитываются только простые импликанты, содержащие m:
+//     удаление m из единичных наборов - простые импликанты, содержащие m, заменяются их подкубами без m,
+//         полученными добавлением одного литерала (остальные простые импликанты остаются простыми)
+//     добавление m - добавляются максимальные импликанты, содержащие m, и удаляются содержащиеся в них
+//         (остальные простые импликанты остаются простыми)
+// таблица покрытия распадается на независимые части (связанные общими импликантами наборы), минимальное
+// покрытие функции - объединение минимальных покрытий частей, поэтому покрытие заново вычисляется
+// (так же, как в QuineMinimizer) только для частей, в которых изменились наборы или импликанты
+// объект не потокобезопасен
+public class IncrementalMinimizer {
+    private final int variablesCount;
+    private final long[] table;
+    private final Set<Implicant> primes = new HashSet<>();
+    // простые импликанты, покрывающие каждый единичный набор
+    private final Map<Integer, List<Implicant>> covering = new HashMap<>();
+    private final Set<Implicant> cover = new HashSet<>();
+
+    // простые импликанты строятся в виде ZDD, покрытие вычисляется для всех частей таблицы
+    public IncrementalMinimizer(BooleanFunction f) {
+        this(f, MinimizationListener.NONE, MinimizationLimits.NONE);
+    }
+
+    public IncrementalMinimizer(BooleanFunction f, MinimizationListener listener, MinimizationLimits limits) {
+        variablesCount = f.getVariablesCount();
+        table = f.toLongArray();
+        long start = System.nanoTime();
+        var bdd = new Bdd();
+        var zdd = new Zdd();
+        for(var prime: zdd.cubes(zdd.primes(bdd, bdd.of(f)), variablesCount)) {
+            addPrime(prime, null);
+        }
+        listener.onPhase("primes", System.nanoTime() - start);
+        var ones = new HashSet<Integer>();
+        for(int one: f.getOnes()) {
+            ones.add(one);
+        }
+        solve(ones, listener, limits);
+    }
+
+    // текущая минимизированная функция
+    public BooleanFunction getResult() {
+        return BooleanFunction.of(variablesCount, new ArrayList<>(cover));
+    }
+
+    // число простых импликант текущей функции
+    public int primesCount() {
+        return primes.size();
+    }
+
+    // изменение функции: наборы added становятся единичными, removed - нулевыми (наборы, значение на которых
+    // уже равно нужному, пропускаются); возвращает минимизированную измененную функцию
+    // набор, входящий и в added, и в removed, - ошибка: наборы проверяются до изменения функции
+    public BooleanFunction update(int[] added, int[] removed) {
+        return update(added, removed, MinimizationListener.NONE, MinimizationLimits.NONE);
+    }
+
+    // при нарушении ограничения покрытие измененных частей может быть не минимальным (как в QuineMinimizer)
+    public BooleanFunction update(int[] added, int[] removed, MinimizationListener listener, MinimizationLimits limits) {
+        Set<Integer> removedSet = new HashSet<>();
+        for(int m: removed) {
+            removedSet.add(check(m));
+        }
+        for(int m: added) {
+            if(removedSet.contains(check(m))) {
+                throw new RuntimeException("set number " + m + " is both added and removed");
+            }
+        }
+        long start = System.nanoTime();
+        // наборы, покрытие которых нужно вычислить заново
+        Set<Integer> changed = new HashSet<>();
+        for(int m: removed) {
+            if(get(m)) {
+                remove(m, changed);
+            }
+        }
+        for(int m: added) {
+            if(!get(m)) {
+                add(m, changed);
+            }
+        }
+        listener.onPhase("primes", System.nanoTime() - start);
+        solve(changed, listener, limits);
+        return getResult();
+    }
+
+    // удаление набора m из единичных: простая импликанта без m, не являющаяся простой для исходной функции,
+    // содержится в простой импликанте p с m и поэтому равна p с одним добавленным литералом, отличным от m
+    private void remove(int m, Set<Integer> changed) {
+        var containing = new ArrayList<>(covering.get(m));
+        table[m >>> 6] &= ~(1L << m);
+        Set<Implicant> candidates = new HashSet<>();
+        for(var p: containing) {
+            removePrime(p, changed);
+            int care = care(p);
+            for(int v = 0; v < variablesCount; v++) {
+                if((care & (1 << v)) == 0) {
+                    var candidate = new Implicant(p);
+                    candidate.set(v, ((m >>> v) & 1) == 0);
+                    candidates.add(candidate);
+                }
+            }
+        }
+        for(var candidate: candidates) {
+            if(isPrime(candidate)) {
+                addPrime(candidate, changed);
+            }
+        }
+    }
+
+    // добавление набора m в единичные: новые простые импликанты содержат m, а старые перестают быть простыми,
+    // только если содержатся в новых
+    private void add(int m, Set<Integer> changed) {
+        table[m >>> 6] |= 1L << m;
+        List<Implicant> added = new ArrayList<>();
+        forEachMaximalCube(m, 0, 0, added);
+        for(var q: added) {
+            Set<Implicant> absorbed = new HashSet<>();
+            forEachMinterm(q, x -> {
+                for(var p: covering.getOrDefault(x, List.of())) {
+                    if(q.covers(p)) {
+                        absorbed.add(p);
+                    }
+                }
+            });
+            for(var p: absorbed) {
+                removePrime(p, changed);
+            }
+        }
+        for(var q: added) {
+            addPrime(q, changed);
+        }
+    }
+
+    // поиск максимальных импликант, содержащих набор m (free - переменные, литералы которых исключены из куба;
+    // переменные исключаются по возрастанию номеров, поэтому каждый куб рассматривается один раз)
+    private void forEachMaximalCube(int m, int free, int from, List<Implicant> res) {
+        boolean maximal = true;
+        for(int v = 0; v < variablesCount; v++) {
+            if((free & (1 << v)) == 0 && isImplicant(cube(m, free | (1 << v)))) {
+                maximal = false;
+                if(v >= from) {
+                    forEachMaximalCube(m, free | (1 << v), v + 1, res);
+                }
+            }
+        }
+        if(maximal) {
+            res.add(cube(m, free));
+        }
+    }
+
+    // вычисление покрытия частей таблицы, содержащих наборы changed (наборы части - связанные общими простыми
+    // импликантами); покрытие остальных частей не меняется
+    private void solve(Set<Integer> changed, MinimizationListener listener, MinimizationLimits limits) {
+        Set<Integer> visited = new HashSet<>();
+        for(int seed: changed) {
+            if(visited.contains(seed) || !get(seed)) {
+                continue;
+            }
+            // обход части в ширину
+            var componentTable = new long[table.length];
+            Set<Implicant> componentPrimes = new LinkedHashSet<>();
+            Deque<Integer> queue = new ArrayDeque<>();
+            queue.add(seed);
+            visited.add(seed);
+            while(!queue.isEmpty()) {
+                int m = queue.poll();
+                componentTable[m >>> 6] |= 1L << m;
+                for(var p: covering.get(m)) {
+                    if(componentPrimes.add(p)) {
+                        forEachMinterm(p, x -> {
+                            if(visited.add(x)) {
+                                queue.add(x);
+                            }
+                        });
+                    }
+                }
+            }
+            cover.removeAll(componentPrimes);
+            var component = new BooleanFunction(variablesCount, componentTable);
+            cover.addAll(new CoverageTable(componentPrimes, component).calcMinCoverage(listener, limits));
+        }
+    }
+
+    private void addPrime(Implicant p, Set<Integer> changed) {
+        primes.add(p);
+        forEachMinterm(p, x -> {
+            covering.computeIfAbsent(x, k -> new ArrayList<>()).add(p);
+            if(changed != null) {
+                changed.add(x);
+            }
+        });
+    }
+
+    private void removePrime(Implicant p, Set<Integer> changed) {
+        primes.remove(p);
+        cover.remove(p);
+        forEachMinterm(p, x -> {
+            var list = covering.get(x);
+            list.remove(p);
+            if(list.isEmpty()) {
+                covering.remove(x);
+            }
+            changed.add(x);
+        });
+    }
+
+    // импликанта проста, если после удаления любого ее литерала она перестает быть импликантой
+    private boolean isPrime(Implicant impl) {
+        if(!isImplicant(impl)) {
+            return false;
+        }
+        int care = care(impl);
+        for(int v = 0; v < variablesCount; v++) {
+            if((care & (1 << v)) != 0) {
+                var expanded = new Implicant(impl);
+                expanded.set(v, null);
+                if(isImplicant(expanded)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean isImplicant(Implicant impl) {
+        return TruthTables.containsAll(table, variablesCount, impl);
+    }
+
+    // куб, содержащий набор m, без литералов переменных free
+    private Implicant cube(int m, int free) {
+        long care = ~free & (variablesCount == 0 ? 0 : -1L >>> (64 - variablesCount));
+        return new Implicant(variablesCount, care, m & care);
+    }
+
+    private int care(Implicant impl) {
+        return variablesCount == 0 ? 0 : (int) impl.careWord(0);
+    }
+
+    // перебор наборов, покрываемых импликантой
+    private void forEachMinterm(Implicant impl, IntConsumer action) {
+        int full = variablesCount == 0 ? 0 : -1 >>> (32 - variablesCount);
+        int free = ~care(impl) & full;
+        int base = variablesCount == 0 ? 0 : (int) impl.valuesWord(0);
+        for(int sub = free; ; sub = (sub - 1) & free) {
+            action.accept(base | sub);
+            if(sub == 0) {
+                break;
+            }
+        }
+    }
+
+    private boolean get(int m) {
+        return (table[m >>> 6] & (1L << m)) != 0;
+    }
+
+    private int check(int m) {
+        if(m < 0 || (long) m >= 1L << variablesCount) {
+            throw new RuntimeException("set number " + m + " of function of " + variablesCount + " variables");
+        }
+        return m;
+    }
+}
@@ -2,94 +2,213 @@ package neilyich.bf.minimization.quine.mccluskey;
 
 import neilyich.bf.minimization.BooleanFunction;
 import neilyich.bf.minimization.Implicant;
+import neilyich.bf.minimization.MinimizationLimits;
+import neilyich.bf.minimization.MinimizationListener;
 import neilyich.bf.minimization.Minimizer;
+import neilyich.bf.minimization.TruthTables;
+import neilyich.bf.minimization.bdd.Bdd;
+import neilyich.bf.minimization.bdd.Zdd;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Supplier;
 
 // реализация алгоритма Квайна МакКласски
+// простые импликанты получаются склейкой стадий, в которых каждая импликанта - отдельный объект, либо (implicitPrimes)
+// неявно: функция переводится в BDD, а множество простых импликант строится в виде ZDD и перебирается один раз
+// при построении таблицы покрытия, поэтому промежуточные стадии не хранятся
+// при нарушении ограничений во время склейки таблица покрытия не строится, а из уже полученных импликант
+// выбирается жадное покрытие (при неявном построении - СДНФ); при нарушении во время поиска покрытия
+// используется лучшее найденное покрытие
 public class QuineMinimizer implements Minimizer {
-    private List<List<Implicant>> stages;
+    // примерный объем памяти одной ячейки таблицы покрытия (элементы множеств строки и столбца)
+    private static final long TABLE_ENTRY_BYTES = 96;
+
+    private final StageMerger merger;
+    private final boolean implicitPrimes;
+
+    public QuineMinimizer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    // склейка больших стадий выполняется в заданном пуле потоков (null - в текущем потоке)
+    public QuineMinimizer(ForkJoinPool pool) {
+        this(pool, false);
+    }
+
+    // implicitPrimes == true - простые импликанты строятся неявно (пул потоков не используется)
+    public QuineMinimizer(ForkJoinPool pool, boolean implicitPrimes) {
+        merger = new StageMerger(pool);
+        this.implicitPrimes = implicitPrimes;
+    }
 
     // получение минимизированной БФ
-    public BooleanFunction minimize(BooleanFunction f) {
+    public BooleanFunction minimize(BooleanFunction f, MinimizationListener listener, MinimizationLimits limits) {
+        listener.onStart(f);
         int variablesCount = f.getVariablesCount();
         int maxN = (int) Math.round(Math.pow(2, variablesCount));
-        if(f.getOnes().size() == maxN) {
-            return BooleanFunction.of(List.of(new Implicant(variablesCount)));
+        if(f.onesCount() == maxN) {
+            var res = BooleanFunction.of(variablesCount, List.of(new Implicant(variablesCount)));
+            listener.onFinish(res);
+            return res;
         }
-        stages = new ArrayList<>();
-        log("Minimizing function:\n", f.toString(), "\n");
+        listener.onTrace("Minimizing function:", () -> f.toString() + "\n\n");
+        if(implicitPrimes) {
+            var res = minimizeImplicit(f, listener, limits);
+            listener.onFinish(res);
+            return res;
+        }
+        // копии стадий хранятся только для вывода
+        List<List<Implicant>> stages = listener.isTracing() ? new ArrayList<>() : null;
+        long start = System.nanoTime();
         var sdnf = f.sdnf();
-        var intersected = intersect(new HashSet<>(sdnf), 1, variablesCount);
-        System.out.println("Finished intersecting implicants:");
-        printStages();
-        var table = new CoverageTable(new ArrayList<>(intersected), sdnf);
-        return BooleanFunction.of(table.calcMinCoverage());
+        MinimizationLimits.Limit[] exceeded = new MinimizationLimits.Limit[1];
+        var intersected = intersect(new HashSet<>(sdnf), variablesCount, stages, listener, limits, exceeded);
+        listener.onPhase("intersect", System.nanoTime() - start);
+        listener.onTrace("Finished intersecting implicants:", () -> renderStages(stages));
+        String phase = "intersect";
+        BooleanFunction res = null;
+        if(exceeded[0] == null) {
+            phase = "table";
+            exceeded[0] = limits.check(tableBytes(intersected, variablesCount));
+        }
+        if(exceeded[0] == null) {
+            start = System.nanoTime();
+            var table = new CoverageTable(new ArrayList<>(intersected), sdnf);
+            listener.onPhase("table", System.nanoTime() - start);
+            exceeded[0] = limits.check();
+            if(exceeded[0] == null) {
+                res = BooleanFunction.of(variablesCount, table.calcMinCoverage(listener, limits));
+            }
+        }
+        if(exceeded[0] != null) {
+            listener.onLimitExceeded(exceeded[0], phase);
+            start = System.nanoTime();
+            res = BooleanFunction.of(variablesCount, greedyCover(f, intersected));
+            listener.onPhase("greedy cover", System.nanoTime() - start);
+        }
+        listener.onFinish(res);
+        return res;
     }
 
-    // склеивание всех импликант между собой
-    private Set<Implicant> intersect(Set<Implicant> implicants, int stage, int variablesCount) {
-        stages.add(new ArrayList<>(implicants));
-        Set<Implicant>[] groups = new Set[variablesCount + 1];
-        for(int i = 0; i < groups.length; i++) {
-            groups[i] = new HashSet<>();
+    // минимизация с неявным построением простых импликант
+    private BooleanFunction minimizeImplicit(BooleanFunction f, MinimizationListener listener, MinimizationLimits limits) {
+        int variablesCount = f.getVariablesCount();
+        long start = System.nanoTime();
+        var bdd = new Bdd();
+        var zdd = new Zdd();
+        int root = bdd.of(f, limits);
+        int primes = root < 0 ? -1 : zdd.primes(bdd, root, limits);
+        listener.onPhase("primes", System.nanoTime() - start);
+        var exceeded = primes < 0 ? limits.check(bdd.bytes() + zdd.bytes()) : null;
+        String phase = "primes";
+        if(exceeded == null) {
+            if(listener.isTracing()) {
+                listener.onTrace("Prime implicants: " + zdd.count(primes) + " (ZDD of " + zdd.size(primes) + " nodes)",
+                        () -> "");
+            }
+            phase = "table";
+            exceeded = limits.check(tableBytes(zdd.cubes(primes, variablesCount), variablesCount));
+        }
+        if(exceeded == null) {
+            start = System.nanoTime();
+            var table = new CoverageTable(zdd.cubes(primes, variablesCount), f);
+            listener.onPhase("table", System.nanoTime() - start);
+            exceeded = limits.check();
+            if(exceeded == null) {
+                return BooleanFunction.of(variablesCount, table.calcMinCoverage(listener, limits));
+            }
         }
+        listener.onLimitExceeded(exceeded, phase);
+        start = System.nanoTime();
+        var res = BooleanFunction.of(variablesCount,
+                greedyCover(f, phase.equals("primes") ? f.sdnf() : zdd.cubes(primes, variablesCount)));
+        listener.onPhase("greedy cover", System.nanoTime() - start);
+        return res;
+    }
+
+    // оценка памяти таблицы покрытия: импликанта с k литералами покрывает 2^(n - k) наборов
+    private static long tableBytes(Iterable<Implicant> implicants, int variablesCount) {
+        long entries = 0;
         for(var impl: implicants) {
-            groups[impl.getWeight()].add(impl);
+            entries += 1L << (variablesCount - impl.literalsCount());
         }
-        Set<Implicant> newImplicants = new HashSet<>();
-        Set<Implicant> used = new HashSet<>();
-        for(int i = 0; i < groups.length - 1; i++) {
-            for(var impl1: groups[i]) {
-                for(var impl2: groups[i + 1]) {
-                    var sum = Implicant.tryIntersect(impl1, impl2);
-                    if(sum.isPresent()) {
-                        used.add(impl1);
-                        used.add(impl2);
-                        newImplicants.add(sum.get());
-                    }
+        return entries * TABLE_ENTRY_BYTES;
+    }
+
+    // жадное покрытие: импликанты берутся в порядке возрастания числа литералов, если покрывают
+    // еще не покрытые наборы (импликанты перебираются по разу для каждого числа литералов, поэтому не копируются)
+    private static List<Implicant> greedyCover(BooleanFunction f, Iterable<Implicant> implicants) {
+        int variablesCount = f.getVariablesCount();
+        var remaining = f.toLongArray();
+        List<Implicant> res = new ArrayList<>();
+        for(int k = 0; k <= variablesCount; k++) {
+            for(var impl: implicants) {
+                if(impl.literalsCount() == k && TruthTables.count(remaining, variablesCount, impl) > 0) {
+                    TruthTables.clear(remaining, variablesCount, impl);
+                    res.add(impl);
                 }
             }
         }
-        if(newImplicants.size() > 1) {
-            implicants.removeAll(used);
-            newImplicants.addAll(implicants);
-            return intersect(newImplicants, stage + 1, variablesCount);
-        }
-        if(newImplicants.size() == 1) {
-            implicants.removeAll(used);
-            newImplicants.addAll(implicants);
-            stages.add(new ArrayList<>(newImplicants));
-        }
-        else {
-            implicants.removeAll(used);
-            newImplicants.addAll(implicants);
-        }
-        return newImplicants;
+        return res;
     }
 
-    private static void log(Object... args) {
-        for(var o: args) {
-            System.out.print(o);
+    // склеивание всех импликант между собой (стадии выполняются до тех пор, пока появляются новые импликанты)
+    // (stages == null - стадии не сохраняются)
+    // при нарушении ограничения оно записывается в exceeded[0] и возвращаются импликанты, полученные к этому моменту
+    // (они покрывают все единичные наборы, но не обязательно простые)
+    private Set<Implicant> intersect(Set<Implicant> implicants, int variablesCount, List<List<Implicant>> stages,
+                                     MinimizationListener listener, MinimizationLimits limits,
+                                     MinimizationLimits.Limit[] exceeded) {
+        // число простых импликант прошлых стадий (они переходят в следующие стадии без изменений, так как
+        // склеиваются только импликанты с одинаковым набором переменных)
+        int carriedPrimes = 0;
+        for(int stage = 1; ; stage++) {
+            // множество стадии и множества склеенных и использованных импликант
+            exceeded[0] = limits.check(3 * implicants.size() * Implicant.estimateBytes(variablesCount));
+            if(exceeded[0] != null) {
+                return implicants;
+            }
+            if(stages != null) {
+                stages.add(new ArrayList<>(implicants));
+            }
+            var merged = merger.merge(implicants, variablesCount, limits);
+            var newImplicants = merged.getMerged();
+            int mergedCount = newImplicants.size();
+            int implicantsCount = implicants.size();
+            implicants.removeAll(merged.getUsed());
+            listener.onStage(stage, implicantsCount, mergedCount, implicants.size() - carriedPrimes);
+            carriedPrimes = implicants.size();
+            newImplicants.addAll(implicants);
+            if(mergedCount == 1) {
+                // единственная склеенная импликанта не склеивается ни с одной другой, поэтому она простая
+                // и составляет последнюю стадию
+                listener.onStage(stage + 1, newImplicants.size(), 0, 1);
+                if(stages != null) {
+                    stages.add(new ArrayList<>(newImplicants));
+                }
+            }
+            if(mergedCount <= 1) {
+                // склейка последней стадии могла быть прервана
+                exceeded[0] = limits.check();
+                return newImplicants;
+            }
+            implicants = newImplicants;
         }
-        System.out.println();
     }
 
     private static final String verticalSeparator = " | ";
     private static final String horizontalSeparator = "-";
     private static final String cornerSeparator = "+";
 
-    // вывод стадий склейки импликант в виде таблицы
-    private void printStages() {
+    // стадии склейки импликант в виде таблицы
+    private static String renderStages(List<List<Implicant>> stages) {
         if(stages.get(0).isEmpty()) {
-            System.out.println("--------");
-            return;
+            return "--------";
         }
         int columnWidth = stages.get(0).get(0).toBinaryString().length();
         if(columnWidth == 0) {
-            System.out.println("--------");
-            return;
+            return "--------";
         }
         int height = stages.stream().max(Comparator.comparingInt(List::size)).get().size();
         int columnsCount = stages.size();
@@ -117,6 +236,6 @@ public class QuineMinimizer implements Minimizer {
             builder.append('\n');
         }
         printRow.get();
-        System.out.println(builder.toString());
+        return builder.append('\n').toString();
     }
 }
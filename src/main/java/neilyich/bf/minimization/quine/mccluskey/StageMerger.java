@@ -0,0 +1,158 @@
+package neilyich.bf.minimization.quine.mccluskey;
+
+import lombok.Getter;
+import neilyich.bf.minimization.Implicant;
+import neilyich.bf.minimization.MinimizationLimits;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// склейка импликант одной стадии алгоритма Квайна МакКласски
+// импликанты разбиваются на группы по числу единичных литералов: пара для импликанты из группы i может быть
+// только в группе i + 1, поэтому группы (и части больших групп) обрабатываются независимо в ForkJoinPool.
+// множество импликант стадии во время склейки только читается, а каждая задача собирает склеенные
+// и использованные импликанты в собственные множества, которые объединяются после завершения подзадач
+// при нарушении ограничений склейка прерывается: склеенные импликанты покрывают все использованные,
+// поэтому неполный результат стадии вместе с неиспользованными импликантами остается покрытием функции
+class StageMerger {
+    // стадии и части групп меньше этого размера склеиваются в текущем потоке
+    private static final int SEQUENTIAL_THRESHOLD = 1024;
+    // ограничения проверяются через каждые CHECK_INTERVAL_MASK + 1 импликант
+    private static final int CHECK_INTERVAL_MASK = 255;
+
+    private final ForkJoinPool pool;
+
+    StageMerger(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // результат склейки стадии
+    @Getter
+    static class Result {
+        private final Set<Implicant> merged = new HashSet<>();
+        private final Set<Implicant> used = new HashSet<>();
+
+        private void addAll(Result result) {
+            merged.addAll(result.merged);
+            used.addAll(result.used);
+        }
+    }
+
+    // склейка всех пар импликант стадии (проверяются только срок и отмена)
+    Result merge(Set<Implicant> implicants, int variablesCount, MinimizationLimits limits) {
+        List<List<Implicant>> groups = new ArrayList<>(variablesCount + 1);
+        for(int i = 0; i <= variablesCount; i++) {
+            groups.add(new ArrayList<>());
+        }
+        for(var impl: implicants) {
+            groups.get(impl.getWeight()).add(impl);
+        }
+        var task = new StageTask(implicants, groups, limits);
+        if(pool == null || implicants.size() < SEQUENTIAL_THRESHOLD) {
+            return task.compute();
+        }
+        return pool.invoke(task);
+    }
+
+    // поиск пар для склейки: литерал со значением 0 заменяется на 1 и полученная импликанта ищется в множестве
+    // импликант стадии
+    private static void merge(Implicant impl, Set<Implicant> implicants, Result result) {
+        Implicant partner = null;
+        for(int w = 0; w < impl.getWordsCount(); w++) {
+            for(long zeros = impl.careWord(w) & ~impl.valuesWord(w); zeros != 0; zeros &= zeros - 1) {
+                int pos = (w << 6) + Long.numberOfTrailingZeros(zeros);
+                if(partner == null) {
+                    partner = new Implicant(impl);
+                }
+                partner.set(pos, true);
+                if(implicants.contains(partner)) {
+                    result.used.add(impl);
+                    result.used.add(new Implicant(partner));
+                    var sum = new Implicant(impl);
+                    sum.set(pos, null);
+                    result.merged.add(sum);
+                }
+                partner.set(pos, false);
+            }
+        }
+    }
+
+    // склейка всей стадии: по одной подзадаче на каждую пару групп (i, i + 1)
+    private static class StageTask extends RecursiveTask<Result> {
+        private static final long serialVersionUID = 1L;
+
+        private final Set<Implicant> implicants;
+        private final List<List<Implicant>> groups;
+        private final MinimizationLimits limits;
+
+        StageTask(Set<Implicant> implicants, List<List<Implicant>> groups, MinimizationLimits limits) {
+            this.implicants = implicants;
+            this.groups = groups;
+            this.limits = limits;
+        }
+
+        @Override
+        protected Result compute() {
+            List<GroupTask> tasks = new ArrayList<>(groups.size());
+            for(int i = 0; i < groups.size() - 1; i++) {
+                var group = groups.get(i);
+                if(!group.isEmpty() && !groups.get(i + 1).isEmpty()) {
+                    tasks.add(new GroupTask(implicants, group, 0, group.size(), limits));
+                }
+            }
+            var result = new Result();
+            if(getPool() == null) {
+                for(var task: tasks) {
+                    result.addAll(task.compute());
+                }
+                return result;
+            }
+            invokeAll(tasks);
+            for(var task: tasks) {
+                result.addAll(task.join());
+            }
+            return result;
+        }
+    }
+
+    // склейка части группы [from, to) с импликантами следующей группы, большие части делятся пополам
+    private static class GroupTask extends RecursiveTask<Result> {
+        private static final long serialVersionUID = 1L;
+
+        private final Set<Implicant> implicants;
+        private final List<Implicant> group;
+        private final int from;
+        private final int to;
+        private final MinimizationLimits limits;
+
+        GroupTask(Set<Implicant> implicants, List<Implicant> group, int from, int to, MinimizationLimits limits) {
+            this.implicants = implicants;
+            this.group = group;
+            this.from = from;
+            this.to = to;
+            this.limits = limits;
+        }
+
+        @Override
+        protected Result compute() {
+            if(to - from <= SEQUENTIAL_THRESHOLD || getPool() == null) {
+                var result = new Result();
+                for(int i = from; i < to; i++) {
+                    if(((i - from) & CHECK_INTERVAL_MASK) == 0 && limits.check() != null) {
+                        break;
+                    }
+                    merge(group.get(i), implicants, result);
+                }
+                return result;
+            }
+            int middle = (from + to) >>> 1;
+            var left = new GroupTask(implicants, group, from, middle, limits);
+            var right = new GroupTask(implicants, group, middle, to, limits);
+            left.fork();
+            var result = right.compute();
+            result.addAll(left.join());
+            return result;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package neilyich.bf.minimization.quine.mccluskey;
+
+import lombok.Getter;
+
+// результат сокращения таблицы покрытия до циклического ядра (сколько строк и столбцов удалило каждое правило)
+@Getter
+public class TableReduction {
+    private final int rowsBefore;
+    private final int columnsBefore;
+    // число выбранных существенных импликант и число покрытых ими столбцов
+    int essentialRows;
+    int coveredColumns;
+    // число столбцов, удаленных как доминируемые (покрываются всегда, когда покрыт другой столбец)
+    int dominatedColumns;
+    // число строк, удаленных как доминируемые (покрывают подмножество столбцов другой не более дорогой строки)
+    int dominatedRows;
+    int rowsAfter;
+    int columnsAfter;
+
+    TableReduction(int rowsBefore, int columnsBefore) {
+        this.rowsBefore = rowsBefore;
+        this.columnsBefore = columnsBefore;
+    }
+
+    @Override
+    public String toString() {
+        return "rows: " + rowsBefore + " -> " + rowsAfter +
+                ", columns: " + columnsBefore + " -> " + columnsAfter +
+                " (essential rows: " + essentialRows + " covering " + coveredColumns + " columns" +
+                ", dominated columns: " + dominatedColumns +
+                ", dominated rows: " + dominatedRows + ")";
+    }
+}
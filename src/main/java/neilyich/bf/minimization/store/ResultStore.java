@@ -0,0 +1,219 @@
+package neilyich.bf.minimization.store;
+
+import neilyich.bf.minimization.BooleanFunction;
+import neilyich.bf.minimization.Implicant;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+// хранилище минимизированных ДНФ на диске, ключ - 64-битный хэш упакованного вектора значений функции
+// файл данных (results.dat) отображается в память и только дописывается, запись:
+//     int длина содержимого, int CRC32 содержимого, содержимое: long хэш, int число переменных,
+//     int число слагаемых, для каждого слагаемого int care и int values
+// файл индекса (results.idx) только дописывается, запись: long хэш, long смещение записи данных, int CRC32
+// при открытии записи индекса проверяются до первой поврежденной (записи индекса, указывающие на поврежденные
+// данные, пропускаются), затем файл данных просматривается
+// после последней проиндексированной записи, и найденные корректные записи (например, после сбоя между записью
+// данных и индекса) добавляются в индекс; поврежденный хвост файла данных перезаписывается следующими записями
+// найденная ДНФ возвращается, только если она реализует запрошенную функцию (защита от коллизий хэша)
+// (поддерживаются функции не более чем от 32 переменных, размер файла данных - не более 2 ГБ)
+public class ResultStore implements Closeable {
+    private static final String DATA_FILE = "results.dat";
+    private static final String INDEX_FILE = "results.idx";
+    private static final int INITIAL_CAPACITY = 1 << 20;
+    private static final int HEADER_SIZE = 8;
+    private static final int INDEX_ENTRY_SIZE = 20;
+
+    private final FileChannel dataChannel;
+    private final FileChannel indexChannel;
+    private MappedByteBuffer data;
+    // позиция, с которой дописывается следующая запись данных
+    private int end;
+    private final Map<Long, Integer> index = new HashMap<>();
+
+    public ResultStore(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        dataChannel = FileChannel.open(directory.resolve(DATA_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        indexChannel = FileChannel.open(directory.resolve(INDEX_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        map((int) Math.max(INITIAL_CAPACITY, dataChannel.size()));
+        readIndex();
+        recover();
+    }
+
+    // число функций в хранилище
+    public synchronized int size() {
+        return index.size();
+    }
+
+    // минимизированная ДНФ функции (null - если ее нет в хранилище)
+    public synchronized List<Implicant> get(BooleanFunction f) {
+        long hash = hash(f);
+        var offset = index.get(hash);
+        if(offset == null || !isValid(offset) || data.getLong(offset + HEADER_SIZE) != hash) {
+            return null;
+        }
+        int variablesCount = data.getInt(offset + HEADER_SIZE + 8);
+        if(variablesCount != f.getVariablesCount()) {
+            return null;
+        }
+        int count = data.getInt(offset + HEADER_SIZE + 12);
+        List<Implicant> implicants = new ArrayList<>(count);
+        int pos = offset + HEADER_SIZE + 16;
+        for(int i = 0; i < count; i++, pos += 8) {
+            implicants.add(new Implicant(variablesCount, Integer.toUnsignedLong(data.getInt(pos)),
+                    Integer.toUnsignedLong(data.getInt(pos + 4))));
+        }
+        if(!BooleanFunction.of(variablesCount, implicants).isSame(f)) {
+            return null;
+        }
+        return implicants;
+    }
+
+    // сохранение минимизированной ДНФ функции f
+    public synchronized void put(BooleanFunction f, List<Implicant> implicants) throws IOException {
+        long hash = hash(f);
+        int length = 16 + 8 * implicants.size();
+        ensureCapacity((long) end + HEADER_SIZE + length);
+        int offset = end;
+        var payload = data.duplicate();
+        payload.position(offset + HEADER_SIZE);
+        payload.putLong(hash);
+        payload.putInt(f.getVariablesCount());
+        payload.putInt(implicants.size());
+        for(var impl: implicants) {
+            payload.putInt(f.getVariablesCount() == 0 ? 0 : (int) impl.careWord(0));
+            payload.putInt(f.getVariablesCount() == 0 ? 0 : (int) impl.valuesWord(0));
+        }
+        data.putInt(offset + 4, crc(offset + HEADER_SIZE, length));
+        data.putInt(offset, length);
+        end = offset + HEADER_SIZE + length;
+        appendIndex(hash, offset);
+        index.put(hash, offset);
+    }
+
+    // сброс изменений на диск
+    public synchronized void flush() throws IOException {
+        data.force();
+        indexChannel.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        dataChannel.close();
+        indexChannel.close();
+    }
+
+    // загрузка корректных записей индекса (индекс обрезается перед первой записью с неверной контрольной суммой)
+    private void readIndex() throws IOException {
+        var buffer = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+        long position = 0;
+        while(true) {
+            buffer.clear();
+            if(indexChannel.read(buffer, position) < INDEX_ENTRY_SIZE) {
+                break;
+            }
+            long hash = buffer.getLong(0);
+            long offset = buffer.getLong(8);
+            var crc = new CRC32();
+            crc.update(buffer.array(), 0, 16);
+            if((int) crc.getValue() != buffer.getInt(16)) {
+                break;
+            }
+            // записи с поврежденными данными пропускаются, остальные записи индекса остаются доступными
+            if(offset >= 0 && offset < data.capacity() && isValid((int) offset)) {
+                index.put(hash, (int) offset);
+                end = Math.max(end, (int) offset + HEADER_SIZE + data.getInt((int) offset));
+            }
+            position += INDEX_ENTRY_SIZE;
+        }
+        indexChannel.truncate(position);
+        indexChannel.position(position);
+    }
+
+    // добавление в индекс корректных записей данных, записанных после последней проиндексированной
+    private void recover() throws IOException {
+        while(end + HEADER_SIZE <= data.capacity() && isValid(end)) {
+            long hash = data.getLong(end + HEADER_SIZE);
+            if(!Objects.equals(index.get(hash), end)) {
+                appendIndex(hash, end);
+                index.put(hash, end);
+            }
+            end += HEADER_SIZE + data.getInt(end);
+        }
+    }
+
+    // true - если по смещению offset записана запись с корректной длиной и контрольной суммой
+    private boolean isValid(int offset) {
+        if(offset + HEADER_SIZE > data.capacity()) {
+            return false;
+        }
+        int length = data.getInt(offset);
+        if(length < 16 || (length - 16) % 8 != 0 || length > data.capacity() - offset - HEADER_SIZE) {
+            return false;
+        }
+        return crc(offset + HEADER_SIZE, length) == data.getInt(offset + 4);
+    }
+
+    private int crc(int from, int length) {
+        var buffer = data.duplicate();
+        buffer.position(from);
+        buffer.limit(from + length);
+        var crc = new CRC32();
+        crc.update(buffer);
+        return (int) crc.getValue();
+    }
+
+    private void appendIndex(long hash, int offset) throws IOException {
+        var buffer = ByteBuffer.allocate(INDEX_ENTRY_SIZE);
+        buffer.putLong(hash);
+        buffer.putLong(offset);
+        var crc = new CRC32();
+        crc.update(buffer.array(), 0, 16);
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        while(buffer.hasRemaining()) {
+            indexChannel.write(buffer);
+        }
+    }
+
+    // увеличение отображаемой области файла данных (в 2 раза, пока запись не поместится)
+    private void ensureCapacity(long required) throws IOException {
+        if(required <= data.capacity()) {
+            return;
+        }
+        if(required > Integer.MAX_VALUE) {
+            throw new RuntimeException("result store data file is full");
+        }
+        long capacity = data.capacity();
+        while(capacity < required) {
+            capacity *= 2;
+        }
+        data.force();
+        map((int) Math.min(capacity, Integer.MAX_VALUE));
+    }
+
+    private void map(int capacity) throws IOException {
+        data = dataChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    // 64-битный хэш числа переменных и упакованного вектора значений
+    static long hash(BooleanFunction f) {
+        long h = f.getVariablesCount() * 0x9E3779B97F4A7C15L;
+        for(long word: f.toLongArray()) {
+            h = (h ^ word) * 0xBF58476D1CE4E5B9L;
+            h ^= h >>> 31;
+        }
+        return h ^ (h >>> 29);
+    }
+}
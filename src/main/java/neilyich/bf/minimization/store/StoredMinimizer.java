@@ -0,0 +1,48 @@
+package neilyich.bf.minimization.store;
+
+import neilyich.bf.minimization.BooleanFunction;
+import neilyich.bf.minimization.CompositeListener;
+import neilyich.bf.minimization.LimitTracker;
+import neilyich.bf.minimization.MinimizationLimits;
+import neilyich.bf.minimization.MinimizationListener;
+import neilyich.bf.minimization.Minimizer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// минимизация с сохранением результатов на диск: ДНФ сначала ищется в хранилище,
+// при отсутствии функция минимизируется исходным алгоритмом и результат сохраняется
+// (хранилище не различает алгоритмы, поэтому для разных алгоритмов лучше использовать разные каталоги)
+public class StoredMinimizer implements Minimizer {
+    private final Minimizer minimizer;
+    private final ResultStore store;
+
+    public StoredMinimizer(Minimizer minimizer, ResultStore store) {
+        this.minimizer = minimizer;
+        this.store = store;
+    }
+
+    // получение минимизированной БФ
+    // (результат, полученный при нарушении ограничения, не сохраняется)
+    public BooleanFunction minimize(BooleanFunction f, MinimizationListener listener, MinimizationLimits limits) {
+        var stored = store.get(f);
+        if(stored != null) {
+            listener.onStart(f);
+            var res = BooleanFunction.of(f.getVariablesCount(), stored);
+            listener.onFinish(res);
+            return res;
+        }
+        var tracker = new LimitTracker();
+        var min = minimizer.minimize(f, new CompositeListener(listener, tracker), limits);
+        if(tracker.getExceededLimit() != null) {
+            return min;
+        }
+        try {
+            store.put(f, min.sdnf());
+        }
+        catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return min;
+    }
+}
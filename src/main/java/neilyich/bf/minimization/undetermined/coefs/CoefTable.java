@@ -0,0 +1,187 @@
+package neilyich.bf.minimization.undetermined.coefs;
+
+import neilyich.bf.minimization.BooleanFunction;
+import neilyich.bf.minimization.Implicant;
+import neilyich.bf.minimization.MinimizationLimits;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// пространство коэффициентов метода неопределенных коэффициентов: каждому кубу (слагаемому) соответствует код
+// в троичной системе, i-я цифра которого 0 - переменная xi не входит в куб, 1 - входит с отрицанием, 2 - без отрицания
+// (код 0 - пустой куб, тождественная единица). коэффициент куба равен 0, если куб содержит нулевой набор функции;
+// признаки нулевых коэффициентов хранятся в битовом множестве, индексированном кодом куба (3^n бит)
+class CoefTable {
+    // 3^19 - наибольшая степень тройки, помещающаяся в int
+    static final int MAX_VARIABLES_COUNT = 19;
+    // при заполнении таблицы ограничения проверяются через каждые CHECK_INTERVAL_MASK + 1 кодов
+    private static final int CHECK_INTERVAL_MASK = (1 << 16) - 1;
+
+    private final int variablesCount;
+    // pow3[i] = 3^i
+    private final int[] pow3;
+    private final long[] zero;
+
+    // таблица создается только после проверки check
+    CoefTable(int variablesCount) {
+        this.variablesCount = variablesCount;
+        pow3 = new int[variablesCount + 1];
+        pow3[0] = 1;
+        for(int i = 1; i <= variablesCount; i++) {
+            pow3[i] = pow3[i - 1] * 3;
+        }
+        zero = new long[(pow3[variablesCount] + 63) >>> 6];
+    }
+
+    // проверка, можно ли построить таблицу для функции от variablesCount переменных (null - можно): для функций
+    // более чем от MAX_VARIABLES_COUNT переменных коды кубов не помещаются в int, это считается нарушением
+    // ограничения памяти
+    static MinimizationLimits.Limit check(int variablesCount, MinimizationLimits limits) {
+        if(variablesCount > MAX_VARIABLES_COUNT) {
+            return MinimizationLimits.Limit.MEMORY;
+        }
+        return limits.check(bytes(variablesCount));
+    }
+
+    // объем памяти битового множества для функции от variablesCount переменных
+    static long bytes(int variablesCount) {
+        return (long) Math.pow(3, variablesCount) / 8 + 8;
+    }
+
+    // заполнение признаков нулевых коэффициентов по вектору значений функции (null - таблица заполнена,
+    // иначе - нарушенное ограничение). коды перебираются по убыванию: куб с отсутствующей переменной xj
+    // нулевой, если нулевой хотя бы один из двух кубов с xj и !xj (их коды больше и уже обработаны),
+    // а куб со всеми переменными - набор, значение которого берется из вектора
+    MinimizationLimits.Limit fill(BooleanFunction f, MinimizationLimits limits) {
+        var table = f.toLongArray();
+        int[] digits = new int[variablesCount];
+        Arrays.fill(digits, 2);
+        for(int code = pow3[variablesCount] - 1; code >= 0; code--) {
+            if((code & CHECK_INTERVAL_MASK) == 0) {
+                var exceeded = limits.check();
+                if(exceeded != null) {
+                    return exceeded;
+                }
+            }
+            int j = 0;
+            while(j < variablesCount && digits[j] != 0) {
+                j++;
+            }
+            boolean isZero;
+            if(j == variablesCount) {
+                int minterm = 0;
+                for(int i = 0; i < variablesCount; i++) {
+                    if(digits[i] == 2) {
+                        minterm |= 1 << i;
+                    }
+                }
+                isZero = (table[minterm >>> 6] & (1L << minterm)) == 0;
+            }
+            else {
+                isZero = isZero(code + pow3[j]) || isZero(code + 2 * pow3[j]);
+            }
+            if(isZero) {
+                zero[code >>> 6] |= 1L << code;
+            }
+            // переход к предыдущему коду
+            for(int k = 0; k < variablesCount; k++) {
+                if(digits[k] != 0) {
+                    digits[k]--;
+                    break;
+                }
+                digits[k] = 2;
+            }
+        }
+        return null;
+    }
+
+    int getVariablesCount() {
+        return variablesCount;
+    }
+
+    boolean isZero(int code) {
+        return (zero[code >>> 6] & (1L << code)) != 0;
+    }
+
+    // число ненулевых коэффициентов
+    long nonZeroCount() {
+        long count = pow3[variablesCount];
+        for(long word: zero) {
+            count -= Long.bitCount(word);
+        }
+        return count;
+    }
+
+    // код набора (куба со всеми переменными)
+    int mintermCode(int minterm) {
+        int code = 0;
+        for(int i = 0; i < variablesCount; i++) {
+            code += ((minterm >>> i) & 1) == 0 ? pow3[i] : 2 * pow3[i];
+        }
+        return code;
+    }
+
+    // импликанта, соответствующая коду куба
+    Implicant implicant(int code) {
+        long care = 0;
+        long values = 0;
+        for(int i = 0; i < variablesCount; i++, code /= 3) {
+            int digit = code % 3;
+            if(digit != 0) {
+                care |= 1L << i;
+                if(digit == 2) {
+                    values |= 1L << i;
+                }
+            }
+        }
+        return new Implicant(variablesCount, care, values);
+    }
+
+    // коды всех непустых кубов, содержащих набор minterm (включая нулевые), - строка исходной системы
+    void forEachCube(int minterm, IntConsumer action) {
+        int[] weights = weights(minterm);
+        int full = (1 << variablesCount) - 1;
+        for(int vars = full; vars != 0; vars = (vars - 1) & full) {
+            int code = 0;
+            for(int rest = vars; rest != 0; rest &= rest - 1) {
+                code += weights[Integer.numberOfTrailingZeros(rest)];
+            }
+            action.accept(code);
+        }
+    }
+
+    // коды максимальных ненулевых кубов, содержащих единичный набор minterm (строка системы после удаления
+    // коэффициентов, покрываемых другими коэффициентами строки)
+    // из куба набора по очереди удаляются литералы (в порядке возрастания номеров переменных, чтобы каждый куб
+    // был получен один раз); если куб стал нулевым, то нулевыми будут и все полученные из него удалением литералов,
+    // поэтому перебираются только ненулевые кубы
+    void forEachMaximalCube(int minterm, IntConsumer action) {
+        forEachMaximalCube(mintermCode(minterm), (1 << variablesCount) - 1, 0, weights(minterm), action);
+    }
+
+    private void forEachMaximalCube(int code, int care, int from, int[] weights, IntConsumer action) {
+        boolean maximal = true;
+        for(int rest = care; rest != 0; rest &= rest - 1) {
+            int j = Integer.numberOfTrailingZeros(rest);
+            int child = code - weights[j];
+            if(!isZero(child)) {
+                maximal = false;
+                if(j >= from) {
+                    forEachMaximalCube(child, care & ~(1 << j), j + 1, weights, action);
+                }
+            }
+        }
+        if(maximal) {
+            action.accept(code);
+        }
+    }
+
+    // вклад каждой переменной набора в код куба, содержащего ее литерал
+    private int[] weights(int minterm) {
+        int[] weights = new int[variablesCount];
+        for(int i = 0; i < variablesCount; i++) {
+            weights[i] = ((minterm >>> i) & 1) == 0 ? pow3[i] : 2 * pow3[i];
+        }
+        return weights;
+    }
+}
@@ -2,226 +2,289 @@ package neilyich.bf.minimization.undetermined.coefs;
 
 import neilyich.bf.minimization.BooleanFunction;
 import neilyich.bf.minimization.Implicant;
+import neilyich.bf.minimization.MinimizationLimits;
+import neilyich.bf.minimization.MinimizationListener;
 import neilyich.bf.minimization.Minimizer;
+import neilyich.bf.minimization.cover.CoverSolver;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
 // реализация метода неопределенных коэффициентов
+// коэффициенты хранятся в плотной таблице CoefTable, индексированной троичным кодом куба, а строки системы -
+// массивами кодов коэффициентов. минимальное решение системы (сначала по числу коэффициентов, равных 1, затем по
+// числу литералов) ищется как минимальное покрытие методом ветвей и границ с распространением единичных строк
+// при нарушении ограничений во время построения системы возвращается СДНФ, а во время поиска решения -
+// лучшее найденное решение (не хуже жадного)
 public class CoefsMinimizer implements Minimizer {
+    // ограничения при построении системы проверяются через каждые CHECK_INTERVAL_MASK + 1 наборов
+    private static final int CHECK_INTERVAL_MASK = 63;
+    // примерный объем памяти строки системы сверх кодов ее коэффициентов (массив и элемент списка)
+    private static final long LINE_BYTES = 24;
 
     // получение минимизированной БФ
-    public BooleanFunction minimize(BooleanFunction f) {
+    public BooleanFunction minimize(BooleanFunction f, MinimizationListener listener, MinimizationLimits limits) {
+        listener.onStart(f);
         int variablesCount = f.getVariablesCount();
         int maxN = (int) Math.round(Math.pow(2, variablesCount));
-        if(f.getOnes().size() == maxN) {
-            return BooleanFunction.of(List.of(new Implicant(variablesCount)));
+        if(f.onesCount() == maxN) {
+            var res = BooleanFunction.of(variablesCount, List.of(new Implicant(variablesCount)));
+            listener.onFinish(res);
+            return res;
         }
-        Map<Implicant, Coef> allCoefs = new HashMap<>();
-        Set<Integer> ones = new HashSet<>(f.getOnes());
-        List<List<Coef>> system = new ArrayList<>(f.getOnes().size());
+        long start = System.nanoTime();
+        var exceeded = CoefTable.check(variablesCount, limits);
+        var table = exceeded == null ? new CoefTable(variablesCount) : null;
+        if(table != null) {
+            exceeded = table.fill(f, limits);
+        }
+        listener.onPhase("zero coefs", System.nanoTime() - start);
+        if(exceeded != null) {
+            return sdnf(f, exceeded, "zero coefs", listener);
+        }
+        listener.onTrace("System of equalities:", () -> renderSystem(allCubes(f, table), Set.of(), table));
+        start = System.nanoTime();
+        // строка системы для единичного набора сразу содержит только максимальные ненулевые коэффициенты:
+        // остальные либо равны 0, либо покрываются другими коэффициентами строки
+        List<int[]> system = new ArrayList<>(f.onesCount());
+        long entries = 0;
+        var line = new IntList();
         for(int i = 0; i < maxN; i++) {
-            var cfs = createLine(variablesCount, i, ones.contains(i), allCoefs);
-            if(cfs != null) {
-                system.add(cfs);
+            if((i & CHECK_INTERVAL_MASK) == 0) {
+                exceeded = limits.check(CoefTable.bytes(variablesCount) + entries * 4 + system.size() * LINE_BYTES);
+                if(exceeded != null) {
+                    return sdnf(f, exceeded, "system", listener);
+                }
+            }
+            if(f.get(i)) {
+                line.clear();
+                table.forEachMaximalCube(i, line::add);
+                system.add(line.toArray());
+                entries += line.size();
             }
         }
-        System.out.println("System of equalities:");
-        printSystem(system);
-        simplifySystem(system);
-        System.out.println("\nSystem of equalities after removing from each line all coefs which are covered by others:");
-        printSystem(system);
-        return BooleanFunction.of(resolveCoefs(system));
+        // строки упорядочиваются по длине (от порядка зависит выбор среди равноценных решений)
+        system.sort(Comparator.comparingInt(l -> l.length));
+        listener.onPhase("system", System.nanoTime() - start);
+        listener.onTrace("\nSystem of equalities after removing from each line all coefs which are covered by others:",
+                () -> renderSystem(system, Set.of(), table));
+        var res = BooleanFunction.of(variablesCount,
+                resolveCoefs(system, table, (int) Math.min(table.nonZeroCount(), Integer.MAX_VALUE), listener, limits));
+        listener.onFinish(res);
+        return res;
     }
 
-    // упрощение системы путем удаления из строк коэффициентов, покрываемых другими
-    private void simplifySystem(List<List<Coef>> system) {
-        for(var row: system) {
-            row.removeIf((c) -> c.getValue() != null && !c.getValue());
-        }
-        for (var line : system) {
-            Set<Coef> minimizedLine = new HashSet<>(line);
-            for (var coef : line) {
-                minimizedLine.removeIf(c -> c != coef && coef.getImplicant().covers(c.getImplicant()));
+    // СДНФ функции - результат при нарушении ограничения до построения системы
+    private static BooleanFunction sdnf(BooleanFunction f, MinimizationLimits.Limit exceeded, String phase,
+                                        MinimizationListener listener) {
+        listener.onLimitExceeded(exceeded, phase);
+        var res = BooleanFunction.of(f.getVariablesCount(), f.sdnf());
+        listener.onFinish(res);
+        return res;
+    }
+
+    // исходная система уравнений: для каждого единичного набора все содержащие его ненулевые коэффициенты
+    // (только для вывода)
+    private static List<int[]> allCubes(BooleanFunction f, CoefTable table) {
+        List<int[]> system = new ArrayList<>();
+        var line = new IntList();
+        for(int i = 0; i < 1 << f.getVariablesCount(); i++) {
+            if(f.get(i)) {
+                line.clear();
+                table.forEachCube(i, code -> {
+                    if(!table.isZero(code)) {
+                        line.add(code);
+                    }
+                });
+                system.add(line.toArray());
             }
-            line.clear();
-            line.addAll(minimizedLine);
         }
+        system.sort(Comparator.comparingInt(l -> l.length));
+        return system;
     }
 
-    // получение строки системы уравнений для заданного номера набора
-    private List<Coef> createLine(int variablesCount, int n, boolean f, Map<Implicant, Coef> allCoefs) {
-        boolean[] bits = new boolean[variablesCount];
-        List<Integer> vars = new ArrayList<>();
-        for (int i = 0; i < bits.length; i++) {
-            if (n % 2 != 0) {
-                bits[i] = true;
-                vars.add(i);
-            }
-            else {
-                bits[i] = false;
-            }
-            n /= 2;
-        }
-
-        Set<Implicant> implicants = new HashSet<>();
-        for(int v = 0; v < variablesCount; v++) {
-            var newImpl = new Implicant(variablesCount);
-            newImpl.set(v, bits[v]);
-            Set<Implicant> newImpls = new HashSet<>();
-            for(var impl: implicants) {
-                newImpls.add(Implicant.mult(impl, newImpl));
-            }
-            implicants.addAll(newImpls);
-            implicants.add(newImpl);
-        }
-        if(f) {
-            List<Coef> coefs = new ArrayList<>(implicants.size());
-            for(var impl: implicants) {
-                if(allCoefs.containsKey(impl)) {
-                    var coef = allCoefs.get(impl);
-                    if(coef.getValue() == null) {
-                        coefs.add(coef);
-                    }
+    // жадное решение системы с пронумерованными коэффициентами (на каждом шаге берется коэффициент из наибольшего
+    // числа невыполненных строк), возвращаются номера выбранных коэффициентов
+    private static List<Integer> greedySolution(int[][] lines, int coefsCount) {
+        int[] occurrences = new int[coefsCount];
+        List<List<Integer>> coefLines = new ArrayList<>(coefsCount);
+        for(int i = 0; i < coefsCount; i++) {
+            coefLines.add(new ArrayList<>());
+        }
+        for(int l = 0; l < lines.length; l++) {
+            for(int c: lines[l]) {
+                occurrences[c]++;
+                coefLines.get(c).add(l);
+            }
+        }
+        boolean[] done = new boolean[lines.length];
+        List<Integer> solution = new ArrayList<>();
+        for(int rest = lines.length; rest > 0; ) {
+            int best = 0;
+            for(int c = 1; c < coefsCount; c++) {
+                if(occurrences[c] > occurrences[best]) {
+                    best = c;
                 }
-                else {
-                    var coef = new Coef(impl);
-                    allCoefs.put(impl, coef);
-                    coefs.add(coef);
+            }
+            solution.add(best);
+            for(int l: coefLines.get(best)) {
+                if(!done[l]) {
+                    done[l] = true;
+                    rest--;
+                    for(int c: lines[l]) {
+                        occurrences[c]--;
+                    }
                 }
             }
-            return coefs;
         }
-        for(var impl: implicants) {
-            if(allCoefs.containsKey(impl)) {
-                var coef = allCoefs.get(impl);
-                if(coef.getValue() == null) {
-                    coef.setValue(false);
-                }
+        return solution;
+    }
+
+    // нахождение минимального решения системы уравнений (systemCoefs - число ненулевых коэффициентов)
+    // если на задачу о покрытии не хватает памяти, берется жадное решение
+    private List<Implicant> resolveCoefs(List<int[]> system, CoefTable table, int systemCoefs,
+                                         MinimizationListener listener, MinimizationLimits limits) {
+        long start = System.nanoTime();
+        // коэффициенты из строк длины 1 равны 1, строки с такими коэффициентами выполнены
+        Set<Integer> result = new LinkedHashSet<>();
+        for(var line: system) {
+            if(line.length == 1) {
+                result.add(line[0]);
             }
-            else {
-                var coef = new Coef(impl);
-                coef.setValue(false);
-                allCoefs.put(impl, coef);
+        }
+        List<int[]> rest = new ArrayList<>(system.size());
+        for(var line: system) {
+            if(!containsAny(line, result)) {
+                rest.add(line);
             }
         }
-        return null;
+        listener.onTrace("\nSystem of equalities after assigning 1 to coefs in lines of length 1:",
+                () -> renderSystem(assigned(system, result), result, table));
+        // коэффициенты оставшихся строк нумеруются в порядке появления
+        Map<Integer, Integer> coefMapping = new HashMap<>();
+        int[][] lines = new int[rest.size()][];
+        for(int l = 0; l < lines.length; l++) {
+            var line = rest.get(l);
+            lines[l] = new int[line.length];
+            for(int i = 0; i < line.length; i++) {
+                lines[l][i] = coefMapping.computeIfAbsent(line[i], code -> coefMapping.size());
+            }
+        }
+        int num = coefMapping.size();
+        int[] intMapping = new int[num];
+        coefMapping.forEach((code, i) -> intMapping[i] = code);
+        listener.onCoefsSystem(system.size(), systemCoefs, rest.size(), num);
+        // строки оставшейся системы - столбцы задачи о покрытии, коэффициенты - ее строки; стоимость коэффициента
+        // выбрана так, чтобы сначала минимизировалось число коэффициентов, равных 1, а затем число литералов
+        long termCost = (long) num * table.getVariablesCount() + 1;
+        long[] costs = new long[num];
+        for(int i = 0; i < num; i++) {
+            costs[i] = termCost + table.implicant(intMapping[i]).literalsCount();
+        }
+        List<Integer> coefs = new ArrayList<>();
+        String title = "\nFound minimal solution:";
+        var exceeded = limits.check(CoverSolver.bytes(num, lines.length));
+        if(exceeded != null) {
+            listener.onLimitExceeded(exceeded, "cover search");
+            title = "\nFound greedy solution:";
+            for(int i: greedySolution(lines, num)) {
+                coefs.add(intMapping[i]);
+            }
+        }
+        else if(lines.length > 0) {
+            var solver = new CoverSolver(costs, lines);
+            for(int i: solver.solve(limits)) {
+                coefs.add(intMapping[i]);
+            }
+            listener.onCoverSearch(solver.getNodesCount());
+            if(solver.getExceededLimit() != null) {
+                listener.onLimitExceeded(solver.getExceededLimit(), "cover search");
+                title = "\nFound solution (search stopped by limit):";
+            }
+        }
+        listener.onPhase("resolve", System.nanoTime() - start);
+
+        if(!coefs.isEmpty()) {
+            listener.onTrace(title, () -> {
+                var builder = new StringBuilder();
+                int r = 1;
+                for (var c : coefs) {
+                    builder.append(r++).append(") K( ").append(table.implicant(c)).append(" ) = 1\n");
+                }
+                return builder.toString();
+            });
+            result.addAll(coefs);
+        }
+        return result.stream().map(table::implicant).collect(Collectors.toList());
     }
 
-    // упрощение системы после приравнивания одного из коэффициентов к 1
-    private void simplifySystem(Coef newOneCoef, List<List<Coef>> system) {
-        newOneCoef.setValue(true);
-        for(var row: system) {
-            if(row.contains(newOneCoef)) {
-                row.clear();
-                row.add(newOneCoef);
+    private static boolean containsAny(int[] line, Set<Integer> codes) {
+        for(int code: line) {
+            if(codes.contains(code)) {
+                return true;
             }
         }
+        return false;
     }
 
-    // расчет веса СДНФ, соответствующей данной импликанте (каждый литерал импликанты соответствует отдельному коэффициенту)
-    private int calcRate(Implicant mappedImplicant, Map<Integer, Coef> intMapping) {
-        int rate = 0;
-        for (int i = 0; i < mappedImplicant.getVariablesCount(); i++) {
-            if(mappedImplicant.get(i) != null && mappedImplicant.get(i)) {
-                var c = intMapping.get(i);
-                rate += c.getImplicant().getVariablesCount();
+    // система после приравнивания коэффициентов ones к 1: выполненная строка заменяется таким коэффициентом
+    // (только для вывода)
+    private static List<int[]> assigned(List<int[]> system, Set<Integer> ones) {
+        List<int[]> res = new ArrayList<>(system.size());
+        for(var line: system) {
+            int[] one = null;
+            for(int code: line) {
+                if(ones.contains(code)) {
+                    one = new int[] {code};
+                    break;
+                }
             }
+            res.add(one == null ? line : one);
         }
-        return rate;
+        res.sort(Comparator.comparingInt(l -> l.length));
+        return res;
     }
 
-    // получение СДНФ, соответствующего данной импликанте (каждый литерал импликанты соответствует отдельному коэффициенту)
-    private List<Coef> remapImplicant(Implicant mappedImplicant, Map<Integer, Coef> intMapping) {
-        List<Coef> implicants = new ArrayList<>();
-        for (int i = 0; i < mappedImplicant.getVariablesCount(); i++) {
-            if(mappedImplicant.get(i) != null && mappedImplicant.get(i)) {
-                var c = intMapping.get(i);
-                implicants.add(c);
+    // система уравнений в текстовом виде (строки должны быть упорядочены по длине), коэффициенты ones равны 1
+    private static String renderSystem(List<int[]> system, Set<Integer> ones, CoefTable table) {
+        var builder = new StringBuilder();
+        int k = 1;
+        for(var line: system) {
+            builder.append(k++).append(") ");
+            if(line.length == 0) {
+                builder.append("--------\n");
+                continue;
+            }
+            for (int i = 0; i < line.length; i++) {
+                builder.append(ones.contains(line[i]) ? "" : "K").append(table.implicant(line[i]))
+                        .append(i == line.length - 1 ? " = 1\n" : " v ");
             }
         }
-        return implicants;
+        return builder.toString();
     }
 
-    // нахождение минимального решения системы уравнений
-    private List<Implicant> resolveCoefs(List<List<Coef>> system) {
-        system.sort(Comparator.comparingInt(List::size));
-        int lineNum = 0;
-        Set<Implicant> result = new HashSet<>();
-        for (; lineNum < system.size() && system.get(lineNum).size() == 1; lineNum++) {
-            result.add(system.get(lineNum).get(0).getImplicant());
-            simplifySystem(system.get(lineNum).get(0), system);
-        }
-        System.out.println("\nSystem of equalities after assigning 1 to coefs in lines of length 1:");
-        printSystem(system);
-        Map<Coef, Implicant> coefMapping = new HashMap<>();
-        Map<Integer, Coef> intMapping = new HashMap<>();
-
-        int num = 0;
-        Set<Coef> distinct = new HashSet<>();
-        for (var line : system) {
-            distinct.addAll(line);
-        }
-        var varsCount = distinct.size();
-        List<Set<Implicant>> implicants = new ArrayList<>(system.size() - lineNum);
-        while(lineNum < system.size()) {
-            var line = system.get(lineNum);
-            Set<Implicant> term = new HashSet<>(line.size());
-            for (var c: line) {
-                if(coefMapping.containsKey(c)) {
-                    term.add(coefMapping.get(c));
-                }
-                else {
-                    var impl = new Implicant(varsCount);
-                    impl.set(num, true);
-                    coefMapping.put(c, impl);
-                    intMapping.put(num, c);
-                    term.add(impl);
-                    num++;
-                }
+    // растущий массив кодов для сборки строки системы
+    private static class IntList {
+        private int[] items = new int[16];
+        private int size;
+
+        void add(int item) {
+            if(size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
             }
-            implicants.add(term);
-            lineNum++;
+            items[size++] = item;
         }
-        var mult = Implicant.multAll(implicants);
-        var best = mult.stream().min(Comparator.comparingInt(impl -> calcRate(impl, intMapping)));
 
-        if (best.isEmpty()) {
-            return new ArrayList<>(result);
+        int size() {
+            return size;
         }
 
-        var coefs = remapImplicant(best.get(), intMapping);
-        System.out.println("\nFound minimal solution:");
-        int r = 1;
-        for (var c : coefs) {
-            System.out.println(r++ + ") " + c.toString() + " = 1");
+        void clear() {
+            size = 0;
         }
-        result.addAll(coefs.stream().map(Coef::getImplicant).collect(Collectors.toList()));
-        return new ArrayList<>(result);
-    }
 
-    // вывод системы уравнений на экран
-    private void printSystem(List<List<Coef>> system) {
-        system.sort(Comparator.comparingInt(List::size));
-        int k = 1;
-        for(var line: system) {
-            System.out.print((k++) + ") ");
-            if(line.isEmpty()) {
-                System.out.println("--------");
-                continue;
-            }
-            for (int i = 0; i < line.size() - 1; i++) {
-                var coef = line.get(i);
-                String c = coef.getValue() == null ? "K" : (coef.getValue() ? "" : "0");
-                System.out.print(c);
-                System.out.print(coef.getImplicant().toString());
-                System.out.print(" v ");
-            }
-            var coef = line.get(line.size() - 1);
-            String c = coef.getValue() == null ? "K" : (coef.getValue() ? "" : "0");
-            System.out.print(c);
-            System.out.print(coef.getImplicant().toString());
-            System.out.print(" = 1\n");
+        int[] toArray() {
+            return Arrays.copyOf(items, size);
         }
     }
 }